@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Output message which keeps the written body in memory and can be reused across benchmark invocations.
+ */
+class BenchmarkOutputMessage implements HttpOutputMessage {
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(64 * 1024);
+    private HttpHeaders headers = new HttpHeaders();
+
+    @Override
+    public OutputStream getBody() {
+        return body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Discards the written body and headers, keeping the allocated buffer.
+     */
+    void reset() {
+        body.reset();
+        headers = new HttpHeaders();
+    }
+
+    int size() {
+        return body.size();
+    }
+}
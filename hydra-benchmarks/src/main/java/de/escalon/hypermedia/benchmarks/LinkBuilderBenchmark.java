@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks;
+
+import de.escalon.hypermedia.affordance.Affordance;
+import de.escalon.hypermedia.sample.event.EventController;
+import de.escalon.hypermedia.spring.SpringActionInputParameter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+import static de.escalon.hypermedia.spring.AffordanceBuilder.linkTo;
+import static de.escalon.hypermedia.spring.AffordanceBuilder.methodOn;
+
+/**
+ * Measures the cost of building a single affordance. Run it with {@link BenchmarkRunner} to see the bytes allocated
+ * per operation (<code>gc.alloc.rate.norm</code>): <code>affordance</code> builds a link with a path variable, once
+ * with the shared conversion service and once with a conversion service per formatted parameter, as every input
+ * parameter used to create. The <code>inputParameter</code> benchmarks compare the same for a single parameter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkBuilderBenchmark {
+
+    /**
+     * Installs the default conversion service of input parameters for the <code>affordance</code> benchmark.
+     */
+    @State(Scope.Benchmark)
+    public static class ConversionServiceState {
+
+        @Param({"shared", "perParameter"})
+        public String conversionService;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            SpringActionInputParameter.setDefaultConversionService("perParameter".equals(conversionService) ?
+                    new PerParameterConversionService() : null);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            SpringActionInputParameter.setDefaultConversionService(null);
+        }
+    }
+
+    /**
+     * Creates a conversion service for every conversion, like input parameters did before they shared one.
+     */
+    static class PerParameterConversionService implements ConversionService {
+
+        @Override
+        public boolean canConvert(Class<?> sourceType, Class<?> targetType) {
+            return new DefaultFormattingConversionService().canConvert(sourceType, targetType);
+        }
+
+        @Override
+        public boolean canConvert(TypeDescriptor sourceType, TypeDescriptor targetType) {
+            return new DefaultFormattingConversionService().canConvert(sourceType, targetType);
+        }
+
+        @Override
+        public <T> T convert(Object source, Class<T> targetType) {
+            return new DefaultFormattingConversionService().convert(source, targetType);
+        }
+
+        @Override
+        public Object convert(Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+            return new DefaultFormattingConversionService().convert(source, sourceType, targetType);
+        }
+    }
+
+    private MethodParameter eventId;
+    private int id;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hydra-sample/service/events");
+        request.setServerName("localhost");
+        request.setServerPort(8080);
+        request.setContextPath("/hydra-sample");
+        request.setServletPath("/service");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        eventId = new MethodParameter(EventController.class.getMethod("getEvent", Integer.class), 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Affordance affordance(ConversionServiceState conversionServiceState) {
+        return linkTo(methodOn(EventController.class)
+                .getEvent(id++ & 1023))
+                .withSelfRel();
+    }
+
+    @Benchmark
+    public String inputParameterSharedConversionService() {
+        return new SpringActionInputParameter(eventId, id++ & 1023).getValueFormatted();
+    }
+
+    @Benchmark
+    public String inputParameterOwnConversionService() {
+        return new SpringActionInputParameter(eventId, id++ & 1023, new DefaultFormattingConversionService())
+                .getValueFormatted();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks;
+
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.hydra.HydraMessageConverter;
+import de.escalon.hypermedia.spring.siren.SirenMessageConverter;
+import de.escalon.hypermedia.spring.uber.UberJackson2HttpMessageConverter;
+import de.escalon.hypermedia.spring.xhtml.XhtmlResourceMessageConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast the message converters write the sample resources. Every combination of format, graph and size
+ * is a separate benchmark. The graphs are built once per trial, so only serialization is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageConverterBenchmark {
+
+    @Param({"hydra", "siren", "uber", "xhtml"})
+    public String format;
+
+    @Param({"events", "pagedEvents", "products", "orders"})
+    public String graph;
+
+    @Param({"1", "100", "10000"})
+    public int size;
+
+    private HttpMessageConverter<Object> converter;
+    private MediaType mediaType;
+    private Object resources;
+    private final BenchmarkOutputMessage outputMessage = new BenchmarkOutputMessage();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // links and request-dependent rendering refer to the request bound to the benchmark thread
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hydra-sample/service/events");
+        request.setServerName("localhost");
+        request.setServerPort(8080);
+        request.setContextPath("/hydra-sample");
+        request.setServletPath("/service");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        converter = createConverter(format);
+        resources = createGraph(graph, size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        outputMessage.reset();
+        converter.write(resources, mediaType, outputMessage);
+        return outputMessage.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpMessageConverter<Object> createConverter(String format) {
+        HttpMessageConverter<?> ret;
+        if ("hydra".equals(format)) {
+            ret = new HydraMessageConverter();
+            mediaType = HypermediaTypes.APPLICATION_JSONLD;
+        } else if ("siren".equals(format)) {
+            ret = new SirenMessageConverter();
+            mediaType = HypermediaTypes.SIREN_JSON;
+        } else if ("uber".equals(format)) {
+            ret = new UberJackson2HttpMessageConverter();
+            mediaType = HypermediaTypes.UBER_JSON;
+        } else if ("xhtml".equals(format)) {
+            ret = new XhtmlResourceMessageConverter();
+            mediaType = MediaType.TEXT_HTML;
+        } else {
+            throw new IllegalArgumentException("unknown format " + format);
+        }
+        return (HttpMessageConverter<Object>) ret;
+    }
+
+    private static Object createGraph(String graph, int size) {
+        Object ret;
+        if ("events".equals(graph)) {
+            ret = SampleGraphs.events(size);
+        } else if ("pagedEvents".equals(graph)) {
+            ret = SampleGraphs.pagedEvents(size);
+        } else if ("products".equals(graph)) {
+            ret = SampleGraphs.products(size);
+        } else if ("orders".equals(graph)) {
+            ret = SampleGraphs.orders(size);
+        } else {
+            throw new IllegalArgumentException("unknown graph " + graph);
+        }
+        return ret;
+    }
+}
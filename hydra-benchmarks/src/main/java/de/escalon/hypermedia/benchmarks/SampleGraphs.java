@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks;
+
+import de.escalon.hypermedia.affordance.TypedResource;
+import de.escalon.hypermedia.sample.beans.event.Event;
+import de.escalon.hypermedia.sample.beans.event.Rating;
+import de.escalon.hypermedia.sample.beans.event.Review;
+import de.escalon.hypermedia.sample.beans.store.Offer;
+import de.escalon.hypermedia.sample.beans.store.Order;
+import de.escalon.hypermedia.sample.beans.store.Product;
+import de.escalon.hypermedia.sample.event.EventController;
+import de.escalon.hypermedia.sample.event.ReviewController;
+import de.escalon.hypermedia.sample.model.event.CreativeWork;
+import de.escalon.hypermedia.sample.model.event.EventModel;
+import de.escalon.hypermedia.sample.model.event.EventStatusType;
+import de.escalon.hypermedia.sample.model.store.OrderModel;
+import de.escalon.hypermedia.sample.model.store.OrderStatus;
+import de.escalon.hypermedia.sample.model.store.OrderedItemModel;
+import de.escalon.hypermedia.sample.model.store.ProductModel;
+import de.escalon.hypermedia.sample.store.OrderController;
+import de.escalon.hypermedia.sample.store.OrderedItemController;
+import de.escalon.hypermedia.sample.store.PaymentController;
+import de.escalon.hypermedia.sample.store.ProductController;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.Resources;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+import static de.escalon.hypermedia.spring.AffordanceBuilder.linkTo;
+import static de.escalon.hypermedia.spring.AffordanceBuilder.methodOn;
+
+/**
+ * Builds the resources of the sample service from its models, the way its controllers and assemblers do, without
+ * backends. Must be called while a request is bound to the current thread, so that links point to the request host.
+ */
+public class SampleGraphs {
+
+    private static final String[] PERFORMERS = {"Walk off the Earth", "Cornelia Bielefeldt", "Jazz Quintet"};
+
+    private SampleGraphs() {
+    }
+
+    /**
+     * Event collection, each event having an affordance to read, update and delete it and a nested review
+     * affordance.
+     *
+     * @param size
+     *         number of events
+     * @return events
+     */
+    public static Resources<Event> events(int size) {
+        Resources<Event> events = new Resources<Event>(createEvents(0, size));
+        events.add(linkTo(methodOn(EventController.class)
+                .addEvent(new Event(null, new CreativeWork(null), null, EventStatusType.EVENT_SCHEDULED)))
+                .withSelfRel());
+        events.add(linkTo(methodOn(EventController.class)
+                .findEvents(null))
+                .withRel("hydra:search"));
+        return events;
+    }
+
+    /**
+     * Page of an event collection, with next, previous, first and last links.
+     *
+     * @param size
+     *         number of events on the page
+     * @return paged events
+     */
+    public static PagedResources<Event> pagedEvents(int size) {
+        int page = 1;
+        long totalElements = 3L * size;
+        PagedResources<Event> pagedEvents = new PagedResources<Event>(createEvents(page * size, size),
+                new PagedResources.PageMetadata(size, page, totalElements));
+        String href = linkTo(methodOn(EventController.class)
+                .findEvents(null))
+                .withSelfRel()
+                .getHref();
+        pagedEvents.add(new Link(href + "?page=" + page + "&size=" + size));
+        pagedEvents.add(new Link(href + "?page=" + (page + 1) + "&size=" + size, Link.REL_NEXT));
+        pagedEvents.add(new Link(href + "?page=" + (page - 1) + "&size=" + size, Link.REL_PREVIOUS));
+        pagedEvents.add(new Link(href + "?page=0&size=" + size, Link.REL_FIRST));
+        pagedEvents.add(new Link(href + "?page=2&size=" + size, Link.REL_LAST));
+        return pagedEvents;
+    }
+
+    /**
+     * Collection of products, each with accessories.
+     *
+     * @param size
+     *         number of products
+     * @return products
+     */
+    public static Resources<Product> products(int size) {
+        List<Product> products = new ArrayList<Product>(size);
+        for (int i = 0; i < size; i++) {
+            ProductModel productModel = new ProductModel("Product " + i, Integer.toString(9050100 + i));
+            productModel.addAccessory(new ProductModel("extra shot of caffè", "9052006"));
+            productModel.addAccessory(new ProductModel("Brioche con crema", "9052007"));
+            products.add(toProduct(productModel));
+        }
+        return new Resources<Product>(products, linkTo(methodOn(ProductController.class)
+                .getProducts()).withSelfRel());
+    }
+
+    /**
+     * Collection of orders, each with three ordered items which have add-on offers, i.e. a deeply nested graph.
+     *
+     * @param size
+     *         number of orders
+     * @return orders
+     */
+    public static Resources<Order> orders(int size) {
+        List<Order> orders = new ArrayList<Order>(size);
+        for (int i = 0; i < size; i++) {
+            OrderModel orderModel = new OrderModel();
+            orderModel.setId(i);
+            orderModel.setOrderStatus(OrderStatus.ORDER_PAYMENT_DUE);
+            List<OrderedItemModel> orderedItems = new ArrayList<OrderedItemModel>();
+            orderedItems.add(new OrderedItemModel(new ProductModel("Latte Macchiato", "9050100"), 0));
+            orderedItems.add(new OrderedItemModel(new ProductModel("Cappuccino", "9050101"), 1));
+            orderedItems.add(new OrderedItemModel(new ProductModel("Espresso", "9050102"), 2));
+            orderModel.setOrderedItems(orderedItems);
+            orders.add(toOrder(orderModel));
+        }
+        return new Resources<Order>(orders, linkTo(methodOn(OrderController.class)
+                .getOrders(null)).withSelfRel());
+    }
+
+    private static List<Event> createEvents(int firstId, int size) {
+        List<Event> events = new ArrayList<Event>(size);
+        for (int i = 0; i < size; i++) {
+            int id = firstId + i;
+            EventModel eventModel = new EventModel(id, PERFORMERS[id % PERFORMERS.length],
+                    new CreativeWork("Tour " + id), "Wiesbaden", EventStatusType.EVENT_SCHEDULED);
+            Event event = new Event(eventModel.id, eventModel.performer, eventModel.workPerformed,
+                    eventModel.location, eventModel.eventStatus);
+            event.add(linkTo(methodOn(EventController.class)
+                    .getEvent(event.id))
+                    .and(linkTo(methodOn(EventController.class)
+                            .updateEvent(event.id, event)))
+                    .and(linkTo(methodOn(EventController.class)
+                            .deleteEvent(event.id)))
+                    .withSelfRel());
+            event.workPerformed.add(linkTo(methodOn(ReviewController.class)
+                    .addReview(event.id, new Review(null, new Rating(3))))
+                    .withRel("review"));
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static Product toProduct(ProductModel productModel) {
+        Product product = new Product(productModel.name, productModel.productId);
+        for (ProductModel accessory : productModel.accessories) {
+            product.addAccessory(new Product(accessory.name, accessory.productId));
+        }
+        product.add(linkTo(methodOn(ProductController.class)
+                .getProduct(productModel.productId)).withSelfRel());
+        return product;
+    }
+
+    private static Order toOrder(OrderModel orderModel) {
+        Order order = new Order();
+        order.setOrderStatus(orderModel.getOrderStatus());
+        order.add(linkTo(methodOn(OrderController.class)
+                .getOrder(orderModel.getId())).withSelfRel());
+        for (OrderedItemModel orderedItemModel : orderModel.getOrderedItems()) {
+            Product product = new Product(orderedItemModel.orderedItem.name, orderedItemModel.orderedItem.productId);
+            product.add(linkTo(methodOn(OrderedItemController.class)
+                    .getOrderedItem(orderModel.getId(), orderedItemModel.orderedItemId)).withSelfRel());
+            Offer offer = new Offer();
+            offer.addOn(createAddOnOffer(product, "extra shot of caffè", "9052006", 0.2, orderModel.getId(),
+                    orderedItemModel.orderedItemId));
+            offer.addOn(createAddOnOffer(product, "Brioche con crema", "9052007", 0.8, orderModel.getId(),
+                    orderedItemModel.orderedItemId));
+            product.addOffer(offer);
+            order.addItem(product);
+        }
+        order.add(linkTo(methodOn(PaymentController.class)
+                .makePayment(orderModel.getId())).withRel("paymentUrl"));
+        return order;
+    }
+
+    private static Offer createAddOnOffer(Product product, String name, String addOnProductID, double price,
+                                          int orderId, int orderedItemId) {
+        Offer addOnOffer = new Offer();
+        addOnOffer.setPriceCurrency(Currency.getInstance("EUR"));
+        addOnOffer.setPrice(BigDecimal.valueOf(price));
+        Product addOnProduct = new Product(name, addOnProductID);
+        addOnOffer.setItemOffered(addOnProduct);
+        String productSelfRel = product.getLink(Link.REL_SELF)
+                .getHref();
+        addOnProduct.add(linkTo(methodOn(OrderController.class)
+                .orderAccessory(orderId, orderedItemId, addOnProduct))
+                .reverseRel("isAccessoryOrSparePartFor", "extras", new TypedResource("Product", productSelfRel))
+                .build());
+        return addOnOffer;
+    }
+}
@@ -0,0 +1,85 @@
+package de.escalon.hypermedia;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe cache for values which are expensive to compute, but can be recomputed at any time. The cache is reset
+ * as a whole when it reaches its upper bound, which keeps memory bounded without the bookkeeping of an eviction
+ * policy on the read path.
+ *
+ * @param <K>
+ *         key type, must implement equals and hashCode
+ * @param <V>
+ *         value type
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+
+    private final ConcurrentMap<K, V> entries = new ConcurrentHashMap<K, V>();
+
+    /**
+     * Creates cache.
+     *
+     * @param maxSize
+     *         upper bound for cached entries, the cache is reset when it is reached
+     */
+    public BoundedCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets cached value.
+     *
+     * @param key
+     *         to look up
+     * @return cached value or null
+     */
+    public V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Caches the given value unless another thread has cached a value for the same key in the meantime.
+     *
+     * @param key
+     *         of value
+     * @param value
+     *         to cache
+     * @return the value which is cached for key, to be used by the caller
+     */
+    public V cache(K key, V value) {
+        if (entries.size() >= maxSize) {
+            entries.clear();
+        }
+        V existing = entries.putIfAbsent(key, value);
+        return existing == null ? value : existing;
+    }
+
+    /**
+     * Caches the given value, replacing a value which might be cached for key, e.g. because it is outdated.
+     *
+     * @param key
+     *         of value
+     * @param value
+     *         to cache
+     */
+    public void put(K key, V value) {
+        if (entries.size() >= maxSize) {
+            entries.clear();
+        }
+        entries.put(key, value);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.hydra.serialize;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream which counts the bytes written to it. If a generator writes to a counting output stream, the
+ * position of the generator in the output is known, see {@link #getPosition(JsonGenerator)}.
+ */
+public class CountingOutputStream extends FilterOutputStream {
+
+    private long count;
+
+    public CountingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        count += len;
+    }
+
+    /**
+     * Number of bytes written so far.
+     *
+     * @return byte count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of bytes the given generator has written so far, including buffered output.
+     *
+     * @param jgen
+     *         to check
+     * @return position or -1 if the generator does not write to a counting output stream
+     */
+    public static long getPosition(JsonGenerator jgen) {
+        Object outputTarget = jgen.getOutputTarget();
+        if (outputTarget instanceof CountingOutputStream) {
+            int buffered = jgen.getOutputBuffered();
+            return buffered < 0 ? -1 : ((CountingOutputStream) outputTarget).getCount() + buffered;
+        }
+        return -1;
+    }
+}
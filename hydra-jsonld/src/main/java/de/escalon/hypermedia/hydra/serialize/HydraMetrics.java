@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.hydra.serialize;
+
+/**
+ * Receives measurements from the json-ld serialization, e.g. to publish them to a metrics registry. Set it on the
+ * ObjectMapper as default attribute {@link #KEY_METRICS}, implementations must be thread-safe. If no metrics are
+ * set, {@link NoOpHydraMetrics} is used and nothing is measured.
+ */
+public interface HydraMetrics {
+
+    String KEY_METRICS = "de.escalon.hypermedia.hydra-metrics";
+
+    /**
+     * Tells if measurements should be taken at all. Callers skip taking the time if metrics are disabled.
+     *
+     * @return true if enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Called when the json-ld context of a bean has been determined.
+     *
+     * @param nanos
+     *         duration of context computation
+     * @param cached
+     *         true if a cached context was found, false if it had to be computed
+     */
+    void contextComputed(long nanos, boolean cached);
+
+    /**
+     * Called when a <code>@context</code> has been written, only if the size of the written output is known.
+     *
+     * @param bytes
+     *         size of the <code>@context</code> member
+     */
+    void contextWritten(long bytes);
+
+    /**
+     * Called when a json-ld response has been written.
+     *
+     * @param bytes
+     *         size of the response body, including contexts
+     */
+    void payloadWritten(long bytes);
+
+    /**
+     * Called when an affordance with its operations has been written.
+     *
+     * @param nanos
+     *         duration of affordance serialization
+     */
+    void affordanceWritten(long nanos);
+
+    /**
+     * Called when a level of <code>hydra:supportedProperty</code> is described.
+     *
+     * @param depth
+     *         recursion depth, starting with 1 for the properties of the expected request body
+     */
+    void supportedPropertiesWritten(int depth);
+}
@@ -14,10 +14,13 @@ package de.escalon.hypermedia.hydra.serialize;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.core.type.WritableTypeId;
 import com.fasterxml.jackson.databind.BeanProperty;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
 import com.fasterxml.jackson.databind.jsontype.impl.AsExistingPropertyTypeSerializer;
@@ -32,7 +35,6 @@ import javax.xml.validation.TypeInfoProvider;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -43,12 +45,29 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
     public static final String KEY_LD_CONTEXT = "de.escalon.hypermedia.ld-context";
 
     protected LdContextFactory ldContextFactory;
+    protected LdContextFragments contextFragments;
     private ProxyUnwrapper proxyUnwrapper;
+    private SerializableString typeName;
+
+    private static final SerializedString AT_TYPE_NAME = new SerializedString(JsonLdKeywords.AT_TYPE);
 
     public JacksonHydraSerializer(BeanSerializerBase source) {
         this(source, (ProxyUnwrapper) null);
     }
 
+    /**
+     * Gets the metrics configured for the ObjectMapper of the given provider as attribute {@link
+     * HydraMetrics#KEY_METRICS}.
+     *
+     * @param provider
+     *         of current serialization
+     * @return configured metrics or no-op metrics, never null
+     */
+    public static HydraMetrics getMetrics(SerializerProvider provider) {
+        Object metrics = provider.getAttribute(HydraMetrics.KEY_METRICS);
+        return metrics instanceof HydraMetrics ? (HydraMetrics) metrics : NoOpHydraMetrics.INSTANCE;
+    }
+
     /**
      * Creates new serializer with optional proxy unwrapper.
      *
@@ -77,14 +96,20 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
 
     public BeanSerializerBase withObjectIdWriter(
             ObjectIdWriter objectIdWriter) {
-        return new JacksonHydraSerializer(this, objectIdWriter)
-		        .withLdContextFactory( this.ldContextFactory );
+        JacksonHydraSerializer ret = new JacksonHydraSerializer(this, objectIdWriter)
+		        .withLdContextFactory( this.ldContextFactory )
+		        .withContextFragments( this.contextFragments );
+        ret.typeName = this.typeName;
+        return ret;
     }
 
 	@Override
 	protected BeanSerializerBase withIgnorals( Set<String> toIgnore ) {
-		return new JacksonHydraSerializer(this, toIgnore)
-				.withLdContextFactory( this.ldContextFactory );
+		JacksonHydraSerializer ret = new JacksonHydraSerializer(this, toIgnore)
+				.withLdContextFactory( this.ldContextFactory )
+				.withContextFragments( this.contextFragments );
+		ret.typeName = this.typeName;
+		return ret;
 	}
 
     @Override
@@ -110,6 +135,8 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
         final JacksonHydraSerializer ret = new JacksonHydraSerializer(this);
         ret.withFilterId(filterId);
         ret.withLdContextFactory( this.ldContextFactory );
+        ret.withContextFragments( this.contextFragments );
+        ret.typeName = this.typeName;
         return ret;
     }
 
@@ -118,6 +145,32 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
     	return this;
     }
 
+    /**
+     * Lets the serializer write pre-rendered context objects as raw json.
+     *
+     * @param contextFragments
+     *         holding rendered context objects, may be null to render every context object
+     * @return this serializer
+     */
+    public JacksonHydraSerializer withContextFragments( LdContextFragments contextFragments ) {
+    	this.contextFragments = contextFragments;
+    	return this;
+    }
+
+    /**
+     * Resolves the <code>@type</code> of the handled bean class once, so that beans of exactly that class are written
+     * without looking up annotations and mixins per instance.
+     *
+     * @param config
+     *         providing the mixin of the handled bean class
+     * @return this serializer
+     */
+    public JacksonHydraSerializer withResolvedType( SerializationConfig config ) {
+        Class<?> beanClass = handledType();
+        this.typeName = new SerializedString(getTypeName(beanClass, config.findMixInClassFor(beanClass)));
+        return this;
+    }
+
     @Override
     public void serialize(Object bean, JsonGenerator jgen,
                           SerializerProvider serializerProvider) throws IOException {
@@ -185,23 +238,32 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
             bean = proxyUnwrapper.unwrapProxy(bean);
         }
         // adds @type attribute, reflecting the simple name of the class or the exposed annotation on the class.
-        final Expose classExpose = findAnnotation(bean.getClass(), Expose.class);
+        final Class<?> beanClass = bean.getClass();
+        if (typeName != null && beanClass == handledType()) {
+            jgen.writeFieldName(AT_TYPE_NAME);
+            jgen.writeString(typeName);
+            return;
+        }
         // TODO allow to search up the hierarchy for ResourceSupport mixins and cache found result?
         final Class<?> mixin = provider.getConfig()
-                .findMixInClassFor(bean.getClass());
+                .findMixInClassFor(beanClass);
+        jgen.writeStringField(JsonLdKeywords.AT_TYPE, getTypeName(beanClass, mixin));
+    }
+
+    private static String getTypeName(Class<?> beanClass, Class<?> mixin) {
         final Expose mixinExpose = findAnnotation(mixin, Expose.class);
         final String val;
         if (mixinExpose != null) {
             val = mixinExpose.value(); // mixin wins over class
-        } else if (classExpose != null) {
-            val = classExpose.value(); // expose is better than Java type
         } else {
-
-            val = bean.getClass()
-                    .getSimpleName();
+            final Expose classExpose = findAnnotation(beanClass, Expose.class);
+            if (classExpose != null) {
+                val = classExpose.value(); // expose is better than Java type
+            } else {
+                val = beanClass.getSimpleName();
+            }
         }
-
-        jgen.writeStringField(JsonLdKeywords.AT_TYPE, val);
+        return val;
     }
 
 	protected void serializeContext(Object bean, JsonGenerator jgen,
@@ -219,52 +281,32 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
         final Class<?> mixInClass = mixinSource.findMixInClassFor(bean.getClass());
 
         final LdContext parentContext = contextStack.peek();
-        Map<String, Object> termsOfBean = ldContextFactory.getTerms(mixinSource, bean, mixInClass);
-        Map<String, Object> newTermsOfBean;
-        if (parentContext != null) {
-            newTermsOfBean = new LinkedHashMap<String, Object>();
-            for (Map.Entry<String, Object> termEntry : termsOfBean.entrySet()) {
-                String term = termEntry.getKey();
-                Object value = termEntry.getValue();
-                if (!parentContext.hasEqualTerm(term, value)) {
-                    newTermsOfBean.put(term, value);
-                }
-            }
-        } else {
-            newTermsOfBean = termsOfBean;
-        }
-        LdContext currentContext = new LdContext(parentContext, ldContextFactory.getVocab(mixinSource, bean,
-                mixInClass), newTermsOfBean);
+        HydraMetrics metrics = getMetrics(serializerProvider);
+        LdContext beanContext = ldContextFactory.getLdContext(mixinSource, bean, mixInClass, metrics);
+        LdContext currentContext = parentContext == null ? beanContext : parentContext.nest(beanContext);
         contextStack.push(currentContext);
         // check if we need to write a context for the current bean at all
         // If it is in the same vocab: no context
         // If the terms are already defined in the context: no context
-        boolean mustWriteContext;
-        if (parentContext == null || !parentContext.contains(currentContext)) {
-            mustWriteContext = true;
-        } else {
-            mustWriteContext = false;
-        }
+        boolean mustWriteContext = !currentContext.isContainedInParent();
 
         if (mustWriteContext) {
             // begin context
             // default context: schema.org vocab or vocab package annotation
-            jgen.writeObjectFieldStart("@context");
             // do not repeat vocab if already defined in current context
-            if (parentContext == null || parentContext.vocab == null ||
-                    (currentContext.vocab != null && !currentContext.vocab.equals(parentContext.vocab))) {
-                jgen.writeStringField(JsonLdKeywords.AT_VOCAB, currentContext.vocab);
+            boolean writeVocab = parentContext == null || parentContext.vocab == null ||
+                    (currentContext.vocab != null && !currentContext.vocab.equals(parentContext.vocab));
+            long start = metrics.isEnabled() ? CountingOutputStream.getPosition(jgen) : -1;
+            if (contextFragments != null) {
+                contextFragments.writeContext(jgen, writeVocab, currentContext);
+            } else {
+                jgen.writeFieldName(LdContextFragments.AT_CONTEXT);
+                LdContextFragments.writeContextObject(jgen, writeVocab, currentContext.vocab,
+                        currentContext.terms);
             }
-
-            for (Map.Entry<String, Object> termEntry : currentContext.terms.entrySet()) {
-                if (termEntry.getValue() instanceof String) {
-                    jgen.writeStringField(termEntry.getKey(), termEntry.getValue()
-                            .toString());
-                } else {
-                    jgen.writeObjectField(termEntry.getKey(), termEntry.getValue());
-                }
+            if (start >= 0) {
+                metrics.contextWritten(CountingOutputStream.getPosition(jgen) - start);
             }
-            jgen.writeEndObject();
             // end context
         }
     }
@@ -279,8 +321,10 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
 
     @Override
     public JsonSerializer<Object> unwrappingSerializer(NameTransformer unwrapper) {
-        UnwrappingJacksonHydraSerializer unwrappingJacksonHydraSerializer = new UnwrappingJacksonHydraSerializer
+        JacksonHydraSerializer unwrappingJacksonHydraSerializer = new UnwrappingJacksonHydraSerializer
                 (this, proxyUnwrapper);
+        unwrappingJacksonHydraSerializer.withContextFragments(contextFragments);
+        unwrappingJacksonHydraSerializer.typeName = typeName;
         return unwrappingJacksonHydraSerializer;
     }
 
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.hydra.serialize;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Json which is rendered once and written as raw value afterwards. The rendered json depends on the codec, the
+ * enabled generator features and the character escapes of the generator it was rendered for, hence a fragment may
+ * only be written to generators with the same settings.
+ */
+public final class JsonFragment {
+
+    private static final JsonFactory DEFAULT_JSON_FACTORY = new JsonFactory();
+
+    private final SerializableString json;
+    private final ObjectCodec codec;
+    private final int featureMask;
+    private final CharacterEscapes characterEscapes;
+    private final int highestEscapedChar;
+
+    /**
+     * Creates fragment.
+     *
+     * @param jgen
+     *         the fragment was rendered for
+     * @param json
+     *         rendered by a generator from {@link #createGenerator(JsonGenerator, Writer)}
+     */
+    public JsonFragment(JsonGenerator jgen, String json) {
+        this.json = new SerializedString(json);
+        this.codec = jgen.getCodec();
+        this.featureMask = jgen.getFeatureMask();
+        this.characterEscapes = jgen.getCharacterEscapes();
+        this.highestEscapedChar = jgen.getHighestEscapedChar();
+    }
+
+    /**
+     * Creates a generator which renders json like the given generator, except for pretty printing. Uses the factory
+     * of the generator's codec, so that factory settings of the object mapper apply, and copies the features and
+     * character escapes of the generator.
+     *
+     * @param jgen
+     *         to render for
+     * @param writer
+     *         to render to
+     * @return generator, must be closed by the caller
+     * @throws IOException
+     *         if the generator cannot be created
+     */
+    public static JsonGenerator createGenerator(JsonGenerator jgen, Writer writer) throws IOException {
+        ObjectCodec codec = jgen.getCodec();
+        JsonFactory jsonFactory = codec == null ? DEFAULT_JSON_FACTORY : codec.getFactory();
+        JsonGenerator fragmentGenerator = jsonFactory.createGenerator(writer);
+        fragmentGenerator.setCodec(codec);
+        fragmentGenerator.overrideStdFeatures(jgen.getFeatureMask(), -1);
+        fragmentGenerator.setCharacterEscapes(jgen.getCharacterEscapes());
+        fragmentGenerator.setHighestNonEscapedChar(jgen.getHighestEscapedChar());
+        return fragmentGenerator;
+    }
+
+    /**
+     * Determines if the fragment renders the same as if it were written by the given generator.
+     *
+     * @param jgen
+     *         to write to
+     * @return true if the generator has the settings this fragment was rendered for
+     */
+    public boolean isWritableTo(JsonGenerator jgen) {
+        return codec == jgen.getCodec() && featureMask == jgen.getFeatureMask()
+                && characterEscapes == jgen.getCharacterEscapes()
+                && highestEscapedChar == jgen.getHighestEscapedChar();
+    }
+
+    public SerializableString getJson() {
+        return json;
+    }
+}
@@ -1,21 +1,164 @@
 package de.escalon.hypermedia.hydra.serialize;
 
+import de.escalon.hypermedia.BoundedCache;
+
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Holds Jsonld Context with context inheritance from parent contexts. Created by Dietrich on 02.04.2015.
+ * <p>
+ * Every context keeps a flattened table of all terms in effect, including the terms of its parents, so term lookups
+ * do not walk the parent chain. A context which adds no terms shares the table of its parent. Contexts obtained from
+ * {@link #intern(String, Map)} and {@link #nest(LdContext)} are immutable and shared across beans, requests and
+ * threads, they are held by bounded caches for the whole process.
+ * </p>
  */
 public class LdContext {
 
+    /**
+     * Upper bound for interned root contexts, nested contexts and extended contexts.
+     */
+    private static final int MAX_INTERNED_CONTEXTS = 2048;
+
+    private static final BoundedCache<ContextKey, LdContext> rootContexts =
+            new BoundedCache<ContextKey, LdContext>(MAX_INTERNED_CONTEXTS);
+
+    private static final BoundedCache<ChildKey, LdContext> nestedContexts =
+            new BoundedCache<ChildKey, LdContext>(MAX_INTERNED_CONTEXTS);
+
+    private static final BoundedCache<ChildKey, LdContext> extendedContexts =
+            new BoundedCache<ChildKey, LdContext>(MAX_INTERNED_CONTEXTS);
+
     private LdContext parentContext;
     public final String vocab;
     public final Map<String, Object> terms;
 
+    private final String vocabInEffect;
+    private final Map<String, Object> termsInEffect;
+    private final boolean interned;
+    private final boolean containedInParent;
+
     public LdContext(LdContext parentContext, String vocab, Map<String, Object> terms) {
+        this(parentContext, vocab, terms, false);
+    }
+
+    private LdContext(LdContext parentContext, String vocab, Map<String, Object> terms, boolean interned) {
         this.parentContext = parentContext;
         this.vocab = vocab;
         this.terms = Collections.unmodifiableMap(terms);
+        this.interned = interned;
+        if (parentContext == null) {
+            this.vocabInEffect = vocab;
+            this.termsInEffect = this.terms;
+        } else {
+            this.vocabInEffect = vocab == null ? parentContext.vocabInEffect : vocab;
+            if (terms.isEmpty()) {
+                this.termsInEffect = parentContext.termsInEffect;
+            } else {
+                Map<String, Object> allTerms = new LinkedHashMap<String, Object>(parentContext.termsInEffect);
+                allTerms.putAll(terms);
+                this.termsInEffect = Collections.unmodifiableMap(allTerms);
+            }
+        }
+        this.containedInParent = parentContext != null && parentContext.contains(this);
+    }
+
+    /**
+     * Gets a shared context without parent for the given vocab and terms. Contexts are shared if their vocab is equal
+     * and they have equal terms in the same order.
+     *
+     * @param vocab
+     *         of context
+     * @param terms
+     *         of context
+     * @return interned context
+     */
+    public static LdContext intern(String vocab, Map<String, Object> terms) {
+        ContextKey key = new ContextKey(vocab, terms);
+        LdContext context = rootContexts.get(key);
+        if (context == null) {
+            Map<String, Object> termsCopy = new LinkedHashMap<String, Object>(terms);
+            context = rootContexts.cache(new ContextKey(vocab, termsCopy),
+                    new LdContext(null, vocab, termsCopy, true));
+        }
+        return context;
+    }
+
+    /**
+     * Gets a shared child context of this context which holds the vocab of the given context and those of its terms
+     * which are not already defined equally in this context.
+     *
+     * @param context
+     *         to nest, usually interned
+     * @return nested context
+     */
+    public LdContext nest(LdContext context) {
+        if (!interned) {
+            return createNestedContext(context, false);
+        }
+        ChildKey key = new ChildKey(this, context);
+        LdContext nestedContext = nestedContexts.get(key);
+        if (nestedContext == null) {
+            nestedContext = nestedContexts.cache(key, createNestedContext(context, true));
+        }
+        return nestedContext;
+    }
+
+    /**
+     * Gets a shared child context of this context which repeats the vocab and all terms of the given context, even
+     * those which are already defined equally in this context. Only shared if both this context and the given context
+     * are interned.
+     *
+     * @param context
+     *         to extend this context with
+     * @return extended context
+     */
+    public LdContext extend(LdContext context) {
+        if (!interned || !context.interned) {
+            return new LdContext(this, context.vocab, context.terms, false);
+        }
+        ChildKey key = new ChildKey(this, context);
+        LdContext extendedContext = extendedContexts.get(key);
+        if (extendedContext == null) {
+            extendedContext = extendedContexts.cache(key, new LdContext(this, context.vocab, context.terms, true));
+        }
+        return extendedContext;
+    }
+
+    private LdContext createNestedContext(LdContext context, boolean intern) {
+        Map<String, Object> newTerms = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, Object> termEntry : context.terms.entrySet()) {
+            if (!hasEqualTerm(termEntry.getKey(), termEntry.getValue())) {
+                newTerms.put(termEntry.getKey(), termEntry.getValue());
+            }
+        }
+        return new LdContext(this, context.vocab, newTerms, intern);
+    }
+
+    /**
+     * Determines if the parent context already has the vocab and terms of this context, i.e. if this context need not
+     * be written. Computed once when the context is created.
+     *
+     * @return true if there is a parent context which contains this context
+     */
+    public boolean isContainedInParent() {
+        return containedInParent;
+    }
+
+    /**
+     * Determines if this context is shared.
+     *
+     * @return true if the context was obtained by {@link #intern(String, Map)} or from an interned parent
+     */
+    public boolean isInterned() {
+        return interned;
+    }
+
+    public LdContext getParentContext() {
+        return parentContext;
     }
 
     public boolean contains(LdContext otherContext) {
@@ -29,23 +172,13 @@ public class LdContext {
     }
 
     public boolean hasSameVocabAs(LdContext otherContext) {
-        boolean ret;
-        if (this.vocab == null) {
-            if (parentContext == null) {
-                ret = false;
-            } else {
-                ret = parentContext.hasSameVocabAs(otherContext);
-            }
-        } else {
-            ret = this.vocab.equals(otherContext.vocab);
-        }
-        return ret;
+        return vocabInEffect != null && vocabInEffect.equals(otherContext.vocab);
     }
 
     public boolean hasTermsOf(LdContext otherContext) {
         boolean ret = true;
-        for (String otherTerm : otherContext.terms.keySet()) {
-            ret = hasEqualTerm(otherTerm, otherContext.terms.get(otherTerm));
+        for (Map.Entry<String, Object> otherTerm : otherContext.terms.entrySet()) {
+            ret = hasEqualTerm(otherTerm.getKey(), otherTerm.getValue());
             if (ret == false) {
                 break;
             }
@@ -54,18 +187,80 @@ public class LdContext {
     }
 
     public boolean hasEqualTerm(String term, Object value) {
-        final boolean ret;
-        if (this.terms.containsKey(term)) {
-            ret = this.terms.get(term)
-                    .equals(value);
-        } else {
-            if (parentContext == null) {
-                ret = false;
-            } else {
-                ret = parentContext.hasEqualTerm(term, value);
+        final Object termInEffect = termsInEffect.get(term);
+        return termInEffect != null && termInEffect.equals(value);
+    }
+
+    /**
+     * Key for interned contexts, considers the order of terms.
+     */
+    private static final class ContextKey {
+        private final String vocab;
+        private final Map<String, Object> terms;
+        private final int hash;
+
+        ContextKey(String vocab, Map<String, Object> terms) {
+            this.vocab = vocab;
+            this.terms = terms;
+            this.hash = 31 * (vocab == null ? 0 : vocab.hashCode()) + terms.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
             }
+            if (!(o instanceof ContextKey)) {
+                return false;
+            }
+            ContextKey that = (ContextKey) o;
+            if (hash != that.hash || terms.size() != that.terms.size()
+                    || (vocab == null ? that.vocab != null : !vocab.equals(that.vocab))) {
+                return false;
+            }
+            Iterator<Map.Entry<String, Object>> thatEntries = that.terms.entrySet()
+                    .iterator();
+            for (Map.Entry<String, Object> entry : terms.entrySet()) {
+                if (!entry.equals(thatEntries.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
         }
-        return ret;
     }
 
-}
\ No newline at end of file
+    /**
+     * Key for nested and extended contexts, compares the parent and the child context by identity.
+     */
+    private static final class ChildKey {
+        private final LdContext parent;
+        private final LdContext child;
+
+        ChildKey(LdContext parent, LdContext child) {
+            this.parent = parent;
+            this.child = child;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ChildKey)) {
+                return false;
+            }
+            ChildKey that = (ChildKey) o;
+            return parent == that.parent && child == that.child;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(parent) + System.identityHashCode(child);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.hydra.serialize;
+
+import de.escalon.hypermedia.hydra.mapping.Expose;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precompiled, immutable context information for a bean class and its mixin. Holds everything which can be
+ * determined from the classes alone, i.e. the vocab, the terms defined on package, class and mixin and the terms
+ * of exposed accessors. Enum-valued accessors and the context provider depend on the bean instance, they are kept as
+ * members which must be evaluated per instance by {@link LdContextFactory}.
+ */
+public class LdContextDescriptor {
+
+    private final String vocab;
+    private final Map<String, Object> classTerms;
+    private final Method contextProvider;
+    private final List<MemberTerm> memberTerms;
+    private final Map<String, Object> staticTerms;
+    private volatile LdContext staticContext;
+
+    LdContextDescriptor(String vocab, Map<String, Object> classTerms, Method contextProvider,
+                        List<MemberTerm> memberTerms, Map<String, Object> staticTerms) {
+        this.vocab = vocab;
+        this.classTerms = Collections.unmodifiableMap(classTerms);
+        this.contextProvider = contextProvider;
+        this.memberTerms = Collections.unmodifiableList(memberTerms);
+        this.staticTerms = staticTerms == null ? null : Collections.unmodifiableMap(staticTerms);
+    }
+
+    /**
+     * Vocab defined by mixin, class or package.
+     *
+     * @return vocab or null if the vocab must be determined from the context provider or by default
+     */
+    public String getVocab() {
+        return vocab;
+    }
+
+    /**
+     * Terms defined on package, class and mixin, mixin terms overriding class terms.
+     *
+     * @return class terms, never null
+     */
+    public Map<String, Object> getClassTerms() {
+        return classTerms;
+    }
+
+    /**
+     * Method of the bean class which provides the nested context, as designated by the mixin.
+     *
+     * @return context provider or null
+     */
+    public Method getContextProvider() {
+        return contextProvider;
+    }
+
+    /**
+     * Terms from public fields and bean properties, in declaration order.
+     *
+     * @return member terms, never null
+     */
+    public List<MemberTerm> getMemberTerms() {
+        return memberTerms;
+    }
+
+    /**
+     * Determines if terms can be computed without looking at a bean instance.
+     *
+     * @return true if there is neither a context provider nor an enum-valued member
+     */
+    public boolean hasStaticTerms() {
+        return staticTerms != null;
+    }
+
+    /**
+     * Gets all terms if they do not depend on the bean instance.
+     *
+     * @return terms or null if the terms must be computed per instance
+     * @see #hasStaticTerms()
+     */
+    public Map<String, Object> getStaticTerms() {
+        return staticTerms;
+    }
+
+    /**
+     * Gets the interned context for static terms, if it has been computed already.
+     *
+     * @return static context or null
+     */
+    LdContext getStaticContext() {
+        return staticContext;
+    }
+
+    void setStaticContext(LdContext staticContext) {
+        this.staticContext = staticContext;
+    }
+
+    /**
+     * Term contributed by a public field or a bean property.
+     */
+    public static class MemberTerm {
+
+        enum Kind {
+            EXPOSED, ENUM_FIELD, ENUM_PROPERTY, ENUM_COLLECTION_PROPERTY
+        }
+
+        final Kind kind;
+        final String name;
+        final Expose expose;
+        final Field field;
+        final Method readMethod;
+        final Map<String, String> enumTermDefinition;
+
+        MemberTerm(Kind kind, String name, Expose expose, Field field, Method readMethod) {
+            this.kind = kind;
+            this.name = name;
+            this.expose = expose;
+            this.field = makeAccessible(field);
+            this.readMethod = makeAccessible(readMethod);
+            if (kind == Kind.EXPOSED) {
+                this.enumTermDefinition = null;
+            } else {
+                Map<String, String> definition = new LinkedHashMap<String, String>();
+                if (expose != null) {
+                    definition.put(JsonLdKeywords.AT_ID, expose.value());
+                }
+                definition.put(JsonLdKeywords.AT_TYPE, JsonLdKeywords.AT_VOCAB);
+                this.enumTermDefinition = Collections.unmodifiableMap(definition);
+            }
+        }
+
+        /**
+         * Suppresses access checks for the given accessor, since they would otherwise be repeated on every call for
+         * members of non-public classes.
+         */
+        private static <T extends AccessibleObject> T makeAccessible(T accessor) {
+            if (accessor != null) {
+                try {
+                    accessor.setAccessible(true);
+                } catch (SecurityException e) {
+                    // keep access checks
+                }
+            }
+            return accessor;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Determines if the term depends on the enum value of a bean instance.
+         *
+         * @return true for enum-valued members
+         */
+        public boolean isInstanceDependent() {
+            return kind != Kind.EXPOSED;
+        }
+    }
+}
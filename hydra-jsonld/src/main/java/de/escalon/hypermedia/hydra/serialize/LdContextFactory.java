@@ -1,6 +1,7 @@
 package de.escalon.hypermedia.hydra.serialize;
 
 import de.escalon.hypermedia.AnnotationUtils;
+import de.escalon.hypermedia.BoundedCache;
 import de.escalon.hypermedia.hydra.mapping.*;
 import org.apache.commons.lang3.text.WordUtils;
 
@@ -14,8 +15,12 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static de.escalon.hypermedia.AnnotationUtils.findAnnotation;
@@ -26,6 +31,13 @@ import static de.escalon.hypermedia.AnnotationUtils.findAnnotation;
 public class LdContextFactory {
 
     public static final String HTTP_SCHEMA_ORG = "http://schema.org/";
+
+    private static final BoundedCache<ContextDescriptorKey, LdContextDescriptor> contextDescriptors =
+            new BoundedCache<ContextDescriptorKey, LdContextDescriptor>(2048);
+
+    private static final BoundedCache<Class<?>, Map<Enum, String>> enumTermTables =
+            new BoundedCache<Class<?>, Map<Enum, String>>(1024);
+
     private ProxyUnwrapper proxyUnwrapper;
 
     /**
@@ -42,26 +54,21 @@ public class LdContextFactory {
             bean = proxyUnwrapper.unwrapProxy(bean);
         }
 
-        // determine vocab in context
-        String classVocab = bean == null ? null : vocabFromClassOrPackage(bean.getClass());
-
-        final Vocab mixinVocab = findAnnotation(mixInClass, Vocab.class);
-
-        Object nestedContextProviderFromMixin = getNestedContextProviderFromMixin(mixinSource, bean, mixInClass);
-        String contextProviderVocab = null;
-        if (nestedContextProviderFromMixin != null) {
-            contextProviderVocab = getVocab(mixinSource, nestedContextProviderFromMixin, null);
+        if (bean == null) {
+            final Vocab mixinVocab = findAnnotation(mixInClass, Vocab.class);
+            return mixinVocab == null ? HTTP_SCHEMA_ORG : mixinVocab.value();
         }
 
-        String vocab;
-        if (mixinVocab != null) {
-            vocab = mixinVocab.value(); // wins over class
-        } else if (classVocab != null) {
-            vocab = classVocab; // wins over context provider
-        } else if (contextProviderVocab != null) {
-            vocab = contextProviderVocab; // wins over last resort
-        } else {
-            vocab = HTTP_SCHEMA_ORG;
+        // mixin vocab wins over class vocab, both win over context provider
+        LdContextDescriptor contextDescriptor = getContextDescriptor(bean.getClass(), mixInClass);
+        String vocab = contextDescriptor.getVocab();
+        if (vocab == null) {
+            Object nestedContextProvider = getNestedContextProvider(mixinSource, bean, contextDescriptor);
+            if (nestedContextProvider != null) {
+                vocab = getVocab(mixinSource, nestedContextProvider, null);
+            } else {
+                vocab = HTTP_SCHEMA_ORG; // last resort
+            }
         }
         return vocab;
     }
@@ -74,60 +81,199 @@ public class LdContextFactory {
                 bean = proxyUnwrapper.unwrapProxy(bean);
             }
 
-            Map<String, Object> termsMap = new LinkedHashMap<String, Object>();
-            if (bean != null) {
-                final Class<?> beanClass = bean.getClass();
-                termsMap.putAll(termsFromClass(beanClass));
-                Map<String, Object> mixinTermsMap = getAnnotatedTerms(mixInClass, beanClass
-                        .getName());
-
-                // mixin terms override class terms
-                termsMap.putAll(mixinTermsMap);
+            if (bean == null) {
+                return new LinkedHashMap<String, Object>();
+            }
+            LdContextDescriptor contextDescriptor = getContextDescriptor(bean.getClass(), mixInClass);
+            if (contextDescriptor.hasStaticTerms()) {
+                return new LinkedHashMap<String, Object>(contextDescriptor.getStaticTerms());
+            }
 
-                Object nestedContextProviderFromMixin = getNestedContextProviderFromMixin(mixinSource, bean,
-                        mixInClass);
+            Map<String, Object> termsMap = new LinkedHashMap<String, Object>(contextDescriptor.getClassTerms());
 
-                if (nestedContextProviderFromMixin != null) {
-                    termsMap.putAll(getTerms(mixinSource, nestedContextProviderFromMixin, null));
-                }
+            Object nestedContextProvider = getNestedContextProvider(mixinSource, bean, contextDescriptor);
+            if (nestedContextProvider != null) {
+                termsMap.putAll(getTerms(mixinSource, nestedContextProvider, null));
+            }
 
-                final Field[] fields = beanClass
-                        .getDeclaredFields();
-                for (Field field : fields) {
-                    if (Modifier.isPublic(field.getModifiers())) {
-                        final Expose expose = field.getAnnotation(Expose.class);
-                        if (Enum.class.isAssignableFrom(field.getType())) {
-                            addEnumTerms(termsMap, expose, field.getName(), (Enum) field.get(bean));
-                        } else {
-                            if (expose != null) {
-                                termsMap.put(field.getName(), expose.value());
+            for (LdContextDescriptor.MemberTerm memberTerm : contextDescriptor.getMemberTerms()) {
+                switch (memberTerm.kind) {
+                    case EXPOSED:
+                        termsMap.put(memberTerm.name, memberTerm.expose.value());
+                        break;
+                    case ENUM_FIELD:
+                        addEnumTerms(termsMap, memberTerm, (Enum) memberTerm.field.get(bean));
+                        break;
+                    case ENUM_PROPERTY:
+                        addEnumTerms(termsMap, memberTerm, (Enum) memberTerm.readMethod.invoke(bean));
+                        break;
+                    case ENUM_COLLECTION_PROPERTY:
+                        Collection<? extends Enum> coll = (Collection<? extends Enum>) memberTerm.readMethod
+                                .invoke(bean);
+                        if (coll != null) {
+                            for (Enum item : coll) {
+                                addEnumTerms(termsMap, memberTerm, item);
                             }
                         }
+                        break;
+                    default:
+                        throw new IllegalStateException("unexpected member term " + memberTerm.kind);
+                }
+            }
+            return termsMap;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Gets the interned context of the given bean, holding its vocab and all its terms. Beans whose terms do not
+     * depend on the instance share a context which is computed once.
+     *
+     * @param mixinSource
+     *         to look up mixins of nested context providers
+     * @param bean
+     *         to get the context for
+     * @param mixInClass
+     *         for bean, may be null
+     * @return interned context without parent
+     */
+    public LdContext getLdContext(MixinSource mixinSource, Object bean, Class<?> mixInClass) {
+        return getLdContext(mixinSource, bean, mixInClass, NoOpHydraMetrics.INSTANCE);
+    }
+
+    /**
+     * Gets the interned context of the given bean and reports the time it took to the given metrics. A context
+     * counts as cached if it was computed once for the bean class before.
+     *
+     * @param mixinSource
+     *         to look up mixins of nested context providers
+     * @param bean
+     *         to get the context for
+     * @param mixInClass
+     *         for bean, may be null
+     * @param metrics
+     *         to report to
+     * @return interned context without parent
+     */
+    public LdContext getLdContext(MixinSource mixinSource, Object bean, Class<?> mixInClass, HydraMetrics metrics) {
+        boolean metricsEnabled = metrics.isEnabled();
+        long start = metricsEnabled ? System.nanoTime() : 0L;
+        boolean cached = false;
+        LdContext ldContext = null;
+        Object unwrapped = proxyUnwrapper == null ? bean : proxyUnwrapper.unwrapProxy(bean);
+        if (unwrapped != null) {
+            LdContextDescriptor contextDescriptor = getContextDescriptor(unwrapped.getClass(), mixInClass);
+            if (contextDescriptor.hasStaticTerms()) {
+                ldContext = contextDescriptor.getStaticContext();
+                if (ldContext == null) {
+                    String vocab = contextDescriptor.getVocab();
+                    ldContext = LdContext.intern(vocab == null ? HTTP_SCHEMA_ORG : vocab,
+                            contextDescriptor.getStaticTerms());
+                    contextDescriptor.setStaticContext(ldContext);
+                } else {
+                    cached = true;
+                }
+            }
+        }
+        if (ldContext == null) {
+            ldContext = LdContext.intern(getVocab(mixinSource, bean, mixInClass),
+                    getTerms(mixinSource, bean, mixInClass));
+        }
+        if (metricsEnabled) {
+            metrics.contextComputed(System.nanoTime() - start, cached);
+        }
+        return ldContext;
+    }
+
+    /**
+     * Gets precompiled context information for the given bean class and mixin. The information is computed once per
+     * pair of classes and shared afterwards.
+     *
+     * @param beanClass
+     *         to describe
+     * @param mixInClass
+     *         for bean class, may be null
+     * @return context descriptor
+     */
+    public LdContextDescriptor getContextDescriptor(Class<?> beanClass, Class<?> mixInClass) {
+        ContextDescriptorKey key = new ContextDescriptorKey(beanClass, mixInClass);
+        LdContextDescriptor contextDescriptor = contextDescriptors.get(key);
+        if (contextDescriptor == null) {
+            contextDescriptor = contextDescriptors.cache(key, createContextDescriptor(beanClass, mixInClass));
+        }
+        return contextDescriptor;
+    }
+
+    private LdContextDescriptor createContextDescriptor(Class<?> beanClass, Class<?> mixInClass) {
+        try {
+            final Vocab mixinVocab = findAnnotation(mixInClass, Vocab.class);
+            String vocab;
+            if (mixinVocab != null) {
+                vocab = mixinVocab.value(); // wins over class
+            } else {
+                vocab = vocabFromClassOrPackage(beanClass);
+            }
+
+            Map<String, Object> classTerms = new LinkedHashMap<String, Object>();
+            classTerms.putAll(termsFromClass(beanClass));
+            // mixin terms override class terms
+            classTerms.putAll(getAnnotatedTerms(mixInClass, beanClass.getName()));
+
+            Method contextProvider = null;
+            if (mixInClass != null) {
+                Method mixinContextProvider = getContextProvider(mixInClass);
+                if (mixinContextProvider != null) {
+                    contextProvider = beanClass.getMethod(mixinContextProvider.getName());
+                }
+            }
+
+            boolean instanceDependent = contextProvider != null;
+            List<LdContextDescriptor.MemberTerm> memberTerms = new ArrayList<LdContextDescriptor.MemberTerm>();
+            final Field[] fields = beanClass.getDeclaredFields();
+            for (Field field : fields) {
+                if (Modifier.isPublic(field.getModifiers())) {
+                    final Expose expose = field.getAnnotation(Expose.class);
+                    if (Enum.class.isAssignableFrom(field.getType())) {
+                        memberTerms.add(new LdContextDescriptor.MemberTerm(LdContextDescriptor.MemberTerm.Kind
+                                .ENUM_FIELD, field.getName(), expose, field, null));
+                        instanceDependent = true;
+                    } else if (expose != null) {
+                        memberTerms.add(new LdContextDescriptor.MemberTerm(LdContextDescriptor.MemberTerm.Kind
+                                .EXPOSED, field.getName(), expose, null, null));
                     }
                 }
+            }
 
-                final BeanInfo beanInfo = Introspector.getBeanInfo(beanClass);
-                final PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-                for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-                    final Method method = propertyDescriptor.getReadMethod();
-                    if (method != null) {
-                        final Expose expose = method.getAnnotation(Expose.class);
-                        if (Enum.class.isAssignableFrom(method.getReturnType())) {
-                            addEnumTerms(termsMap, expose, propertyDescriptor.getName(), (Enum) method.invoke(bean));
-                        } else if ( returnsEnumCollection( method ) ) {
-							Collection<? extends Enum> coll = ( Collection<? extends Enum> ) method.invoke( bean );
-							for ( Enum item : coll ) {
-								addEnumTerms(termsMap, expose, propertyDescriptor.getName(), item);
-							}
-                        } else {
-                            if (expose != null) {
-                                termsMap.put(propertyDescriptor.getName(), expose.value());
-                            }
-                        }
+            final BeanInfo beanInfo = Introspector.getBeanInfo(beanClass);
+            final PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
+            for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+                final Method method = propertyDescriptor.getReadMethod();
+                if (method != null) {
+                    final Expose expose = method.getAnnotation(Expose.class);
+                    if (Enum.class.isAssignableFrom(method.getReturnType())) {
+                        memberTerms.add(new LdContextDescriptor.MemberTerm(LdContextDescriptor.MemberTerm.Kind
+                                .ENUM_PROPERTY, propertyDescriptor.getName(), expose, null, method));
+                        instanceDependent = true;
+                    } else if (returnsEnumCollection(method)) {
+                        memberTerms.add(new LdContextDescriptor.MemberTerm(LdContextDescriptor.MemberTerm.Kind
+                                .ENUM_COLLECTION_PROPERTY, propertyDescriptor.getName(), expose, null, method));
+                        instanceDependent = true;
+                    } else if (expose != null) {
+                        memberTerms.add(new LdContextDescriptor.MemberTerm(LdContextDescriptor.MemberTerm.Kind
+                                .EXPOSED, propertyDescriptor.getName(), expose, null, null));
                     }
                 }
             }
-            return termsMap;
+
+            Map<String, Object> staticTerms = null;
+            if (!instanceDependent) {
+                staticTerms = new LinkedHashMap<String, Object>(classTerms);
+                for (LdContextDescriptor.MemberTerm memberTerm : memberTerms) {
+                    staticTerms.put(memberTerm.name, memberTerm.expose.value());
+                }
+            }
+            return new LdContextDescriptor(vocab, classTerms, contextProvider, memberTerms, staticTerms);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -192,55 +338,62 @@ public class LdContextFactory {
         }
     }
 
-    private Object getNestedContextProviderFromMixin(MixinSource mixinSource, Object bean, Class<?> mixinClass) {
+    private Object getNestedContextProvider(MixinSource mixinSource, Object bean,
+                                            LdContextDescriptor contextDescriptor) {
         // TODO does not consider Collection<Resource> or Collection<PersistentEntityResource> to find mixin of
         // object wrapped in resource
         // TODO does not consider package of object wrapped in resource
         // TODO: we do not know Resources here
-        if (mixinClass == null) {
+        Method contextProvider = contextDescriptor.getContextProvider();
+        if (contextProvider == null) {
             return null;
         }
         try {
-            Method mixinContextProvider = getContextProvider(mixinClass);
-            if (mixinContextProvider == null) {
-                return null;
-            }
-            Class<?> beanClass = bean.getClass();
-            Object contextual = beanClass.getMethod(mixinContextProvider.getName())
-                    .invoke(bean);
-            Object ret = null;
-            if (contextual instanceof Collection) {
-                Collection collection = (Collection) contextual;
-                if (!collection.isEmpty()) {
-                    Object item = collection.iterator()
-                            .next();
-                    final Class<?> mixInClass = mixinSource.findMixInClassFor(item.getClass());
-                    if (mixInClass == null) {
-                        ret = item;
-                    } else {
-                        ret = getNestedContextProviderFromMixin(mixinSource, item, mixInClass);
-                    }
+            Object contextual = contextProvider.invoke(bean);
+            return getContextualItem(mixinSource, contextual);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Object getNestedContextProviderFromMixin(MixinSource mixinSource, Object bean, Class<?> mixinClass) {
+        if (mixinClass == null) {
+            return null;
+        }
+        return getNestedContextProvider(mixinSource, bean, getContextDescriptor(bean.getClass(), mixinClass));
+    }
+
+    private Object getContextualItem(MixinSource mixinSource, Object contextual) {
+        Object ret = null;
+        if (contextual instanceof Collection) {
+            Collection collection = (Collection) contextual;
+            if (!collection.isEmpty()) {
+                Object item = collection.iterator()
+                        .next();
+                final Class<?> mixInClass = mixinSource.findMixInClassFor(item.getClass());
+                if (mixInClass == null) {
+                    ret = item;
+                } else {
+                    ret = getNestedContextProviderFromMixin(mixinSource, item, mixInClass);
                 }
-            } else if (contextual instanceof Map) {
-                Map map = (Map) contextual;
-                if (!map.isEmpty()) {
-                    Object item = map.values()
-                            .iterator()
-                            .next();
-                    final Class<?> mixInClass = mixinSource.findMixInClassFor(item.getClass());
-                    if (mixInClass == null) {
-                        ret = item;
-                    } else {
-                        ret = getNestedContextProviderFromMixin(mixinSource, item, mixInClass);
-                    }
+            }
+        } else if (contextual instanceof Map) {
+            Map map = (Map) contextual;
+            if (!map.isEmpty()) {
+                Object item = map.values()
+                        .iterator()
+                        .next();
+                final Class<?> mixInClass = mixinSource.findMixInClassFor(item.getClass());
+                if (mixInClass == null) {
+                    ret = item;
+                } else {
+                    ret = getNestedContextProviderFromMixin(mixinSource, item, mixInClass);
                 }
-            } else {
-                ret = contextual;
             }
-            return ret;
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        } else {
+            ret = contextual;
         }
+        return ret;
     }
 
     private Method getContextProvider(Class<?> beanClass) {
@@ -253,27 +406,44 @@ public class LdContextFactory {
         return contextProvider;
     }
 
-    private void addEnumTerms(Map<String, Object> termsMap, Expose expose, String name,
+    private void addEnumTerms(Map<String, Object> termsMap, LdContextDescriptor.MemberTerm memberTerm,
                               Enum value) throws NoSuchFieldException {
         if (value != null) {
-            Map<String, String> map = new LinkedHashMap<String, String>();
-            if (expose != null) {
-                map.put(JsonLdKeywords.AT_ID, expose.value());
-            }
-            map.put(JsonLdKeywords.AT_TYPE, JsonLdKeywords.AT_VOCAB);
-            termsMap.put(name, map);
-            final Expose enumValueExpose = findAnnotation(value.getClass()
-                    .getField(value.name()), Expose.class);
+            termsMap.put(memberTerm.name, memberTerm.enumTermDefinition);
+            termsMap.put(value.toString(), getEnumTermTable(value.getDeclaringClass()).get(value));
+        }
+    }
 
-            if (enumValueExpose != null) {
-                termsMap.put(value.toString(), enumValueExpose.value());
-            } else {
-                // might use upperToCamelCase if nothing is exposed
-                final String camelCaseEnumValue = WordUtils.capitalizeFully(value.toString(), new char[]{'_'})
-                        .replaceAll("_", "");
-                termsMap.put(value.toString(), camelCaseEnumValue);
+    /**
+     * Gets the terms of all constants of the given enum type, i.e. the exposed IRI or the camel-cased constant if
+     * nothing is exposed. The table is computed once per enum type.
+     *
+     * @param enumClass
+     *         to describe
+     * @return terms by enum constant
+     * @throws NoSuchFieldException
+     *         if a constant has no field, which cannot happen
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<Enum, String> getEnumTermTable(Class<? extends Enum> enumClass) throws NoSuchFieldException {
+        Map<Enum, String> enumTermTable = enumTermTables.get(enumClass);
+        if (enumTermTable == null) {
+            enumTermTable = new EnumMap(enumClass);
+            for (Enum constant : enumClass.getEnumConstants()) {
+                final Expose enumValueExpose = findAnnotation(enumClass.getField(constant.name()), Expose.class);
+                if (enumValueExpose != null) {
+                    enumTermTable.put(constant, enumValueExpose.value());
+                } else {
+                    // might use upperToCamelCase if nothing is exposed
+                    final String camelCaseEnumValue = WordUtils.capitalizeFully(constant.toString(),
+                            new char[]{'_'})
+                            .replaceAll("_", "");
+                    enumTermTable.put(constant, camelCaseEnumValue);
+                }
             }
+            enumTermTable = enumTermTables.cache(enumClass, Collections.unmodifiableMap(enumTermTable));
         }
+        return enumTermTable;
     }
 
 
@@ -307,4 +477,31 @@ public class LdContextFactory {
     public void setProxyUnwrapper(ProxyUnwrapper proxyUnwrapper) {
         this.proxyUnwrapper = proxyUnwrapper;
     }
+
+    private static final class ContextDescriptorKey {
+        private final Class<?> beanClass;
+        private final Class<?> mixInClass;
+
+        ContextDescriptorKey(Class<?> beanClass, Class<?> mixInClass) {
+            this.beanClass = beanClass;
+            this.mixInClass = mixInClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ContextDescriptorKey)) {
+                return false;
+            }
+            ContextDescriptorKey that = (ContextDescriptorKey) o;
+            return beanClass == that.beanClass && mixInClass == that.mixInClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * beanClass.hashCode() + (mixInClass == null ? 0 : mixInClass.hashCode());
+        }
+    }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.hydra.serialize;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import de.escalon.hypermedia.BoundedCache;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+
+/**
+ * Renders json-ld context objects once and writes them as raw json afterwards. A context object only depends on the
+ * vocab to write, if any, and on the terms which are not yet defined by the parent context, so every distinct
+ * combination is rendered once and shared by all threads.
+ */
+public class LdContextFragments {
+
+    public static final String AT_CONTEXT = "@context";
+
+    private static final int MAX_FRAGMENTS = 2048;
+
+    private final BoundedCache<LdContext, JsonFragment> fragmentsWithVocab =
+            new BoundedCache<LdContext, JsonFragment>(MAX_FRAGMENTS);
+
+    private final BoundedCache<LdContext, JsonFragment> fragmentsWithoutVocab =
+            new BoundedCache<LdContext, JsonFragment>(MAX_FRAGMENTS);
+
+    /**
+     * Writes the given context as field <code>@context</code>. The context object of an interned context is looked up
+     * by identity, since its vocab and terms relative to its parent never change.
+     *
+     * @param jgen
+     *         to write to
+     * @param writeVocab
+     *         if true, the vocab of the context is written as <code>@vocab</code>
+     * @param context
+     *         to write
+     * @throws IOException
+     *         if writing fails
+     */
+    public void writeContext(JsonGenerator jgen, boolean writeVocab, LdContext context) throws IOException {
+        if (jgen.getPrettyPrinter() != null) {
+            jgen.writeFieldName(AT_CONTEXT);
+            writeContextObject(jgen, writeVocab, context.vocab, context.terms);
+            return;
+        }
+        jgen.writeFieldName(AT_CONTEXT);
+        jgen.writeRawValue(getFragment(jgen, writeVocab, context));
+    }
+
+    /**
+     * Writes a context object as field <code>@context</code>. Falls back to regular serialization if the given
+     * generator uses a pretty printer, since raw values bypass it.
+     *
+     * @param jgen
+     *         to write to
+     * @param writeVocab
+     *         if true, the given vocab is written as <code>@vocab</code>
+     * @param vocab
+     *         to write
+     * @param terms
+     *         to write
+     * @throws IOException
+     *         if writing fails
+     */
+    public void writeContext(JsonGenerator jgen, boolean writeVocab, String vocab, Map<String, Object> terms)
+            throws IOException {
+        if (jgen.getPrettyPrinter() != null) {
+            jgen.writeFieldName(AT_CONTEXT);
+            writeContextObject(jgen, writeVocab, vocab, terms);
+            return;
+        }
+        jgen.writeFieldName(AT_CONTEXT);
+        jgen.writeRawValue(getFragment(jgen, writeVocab, vocab, terms));
+    }
+
+    /**
+     * Gets the rendered context object for the given context. Fragments are cached per interned context and
+     * writeVocab flag, other contexts are interned first.
+     *
+     * @param jgen
+     *         whose codec, features and character escapes are used for rendering
+     * @param writeVocab
+     *         if true, the vocab of the context is rendered as <code>@vocab</code>
+     * @param context
+     *         to render
+     * @return rendered context object
+     * @throws IOException
+     *         if rendering fails
+     */
+    protected SerializableString getFragment(JsonGenerator jgen, boolean writeVocab, LdContext context)
+            throws IOException {
+        LdContext internedContext = context.isInterned() ? context : LdContext.intern(context.vocab, context.terms);
+        BoundedCache<LdContext, JsonFragment> fragments = writeVocab ? fragmentsWithVocab : fragmentsWithoutVocab;
+        JsonFragment fragment = fragments.get(internedContext);
+        if (fragment == null || !fragment.isWritableTo(jgen)) {
+            StringWriter writer = new StringWriter();
+            JsonGenerator fragmentGenerator = JsonFragment.createGenerator(jgen, writer);
+            writeContextObject(fragmentGenerator, writeVocab, internedContext.vocab, internedContext.terms);
+            fragmentGenerator.close();
+            fragment = new JsonFragment(jgen, writer.toString());
+            fragments.put(internedContext, fragment);
+        }
+        return fragment.getJson();
+    }
+
+    /**
+     * Gets the rendered context object for the given vocab and terms.
+     *
+     * @param jgen
+     *         whose codec, features and character escapes are used for rendering
+     * @param writeVocab
+     *         if true, the given vocab is rendered as <code>@vocab</code>
+     * @param vocab
+     *         to render
+     * @param terms
+     *         to render
+     * @return rendered context object
+     * @throws IOException
+     *         if rendering fails
+     */
+    protected SerializableString getFragment(JsonGenerator jgen, boolean writeVocab, String vocab,
+                                             Map<String, Object> terms) throws IOException {
+        return getFragment(jgen, writeVocab, LdContext.intern(vocab, terms));
+    }
+
+    /**
+     * Writes a context object, without field name.
+     *
+     * @param jgen
+     *         to write to
+     * @param writeVocab
+     *         if true, the given vocab is written as <code>@vocab</code>
+     * @param vocab
+     *         to write
+     * @param terms
+     *         to write
+     * @throws IOException
+     *         if writing fails
+     */
+    public static void writeContextObject(JsonGenerator jgen, boolean writeVocab, String vocab,
+                                          Map<String, Object> terms) throws IOException {
+        jgen.writeStartObject();
+        if (writeVocab) {
+            jgen.writeStringField(JsonLdKeywords.AT_VOCAB, vocab);
+        }
+        for (Map.Entry<String, Object> termEntry : terms.entrySet()) {
+            if (termEntry.getValue() instanceof String) {
+                jgen.writeStringField(termEntry.getKey(), termEntry.getValue()
+                        .toString());
+            } else {
+                jgen.writeObjectField(termEntry.getKey(), termEntry.getValue());
+            }
+        }
+        jgen.writeEndObject();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.hydra.serialize;
+
+/**
+ * Metrics which ignore all measurements, used if no metrics are configured.
+ */
+public final class NoOpHydraMetrics implements HydraMetrics {
+
+    public static final HydraMetrics INSTANCE = new NoOpHydraMetrics();
+
+    private NoOpHydraMetrics() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void contextComputed(long nanos, boolean cached) {
+    }
+
+    @Override
+    public void contextWritten(long bytes) {
+    }
+
+    @Override
+    public void payloadWritten(long bytes) {
+    }
+
+    @Override
+    public void affordanceWritten(long nanos) {
+    }
+
+    @Override
+    public void supportedPropertiesWritten(int depth) {
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.hydra.serialize;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Publishes context objects as remote json-ld context documents and writes references to them instead of inline
+ * contexts. Every distinct context object gets a stable identifier derived from a hash of its content, so the
+ * documents can be cached by clients forever. A separate endpoint must serve the documents at the contexts uri using
+ * {@link #getContextDocument(String)}.
+ * <p>
+ * Context documents are published when a response referencing them is written. If several server instances answer
+ * requests for the same api, a client might ask an instance for a document it has not published yet, unless requests
+ * are routed to the instance which wrote the response.
+ * </p>
+ */
+public class RemoteLdContexts extends LdContextFragments {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Upper bound for published context documents. Published documents are never removed, since clients may refer to
+     * them at any time; once the limit is reached, new contexts are written inline.
+     */
+    private static final int MAX_DOCUMENTS = 10000;
+
+    private final String contextsUri;
+
+    private final ConcurrentMap<SerializableString, String> contextIds =
+            new ConcurrentHashMap<SerializableString, String>();
+
+    private final ConcurrentMap<String, byte[]> contextDocuments = new ConcurrentHashMap<String, byte[]>();
+
+    /**
+     * Creates remote contexts which are referenced relative to the given uri.
+     *
+     * @param contextsUri
+     *         uri below which context documents are served, e.g. <code>https://example.com/contexts</code>
+     */
+    public RemoteLdContexts(String contextsUri) {
+        this.contextsUri = contextsUri.endsWith("/") ? contextsUri : contextsUri + "/";
+    }
+
+    @Override
+    public void writeContext(JsonGenerator jgen, boolean writeVocab, LdContext context) throws IOException {
+        writeContextReference(jgen, writeVocab, context.vocab, context.terms, getFragment(jgen, writeVocab, context));
+    }
+
+    @Override
+    public void writeContext(JsonGenerator jgen, boolean writeVocab, String vocab, Map<String, Object> terms)
+            throws IOException {
+        writeContextReference(jgen, writeVocab, vocab, terms, getFragment(jgen, writeVocab, vocab, terms));
+    }
+
+    private void writeContextReference(JsonGenerator jgen, boolean writeVocab, String vocab, Map<String, Object> terms,
+                                       SerializableString fragment) throws IOException {
+        String contextId = publish(fragment);
+        if (contextId == null) {
+            jgen.writeFieldName(AT_CONTEXT);
+            if (jgen.getPrettyPrinter() != null) {
+                writeContextObject(jgen, writeVocab, vocab, terms);
+            } else {
+                jgen.writeRawValue(fragment);
+            }
+        } else {
+            jgen.writeStringField(AT_CONTEXT, getContextsUri() + contextId);
+        }
+    }
+
+    private String publish(SerializableString fragment) {
+        String contextId = contextIds.get(fragment);
+        if (contextId == null) {
+            if (contextDocuments.size() >= MAX_DOCUMENTS) {
+                return null;
+            }
+            byte[] contextDocument = ("{\"" + AT_CONTEXT + "\":" + fragment.getValue() + "}").getBytes(UTF_8);
+            contextId = hash(contextDocument);
+            contextDocuments.putIfAbsent(contextId, contextDocument);
+            contextIds.putIfAbsent(fragment, contextId);
+        }
+        return contextId;
+    }
+
+    private static String hash(byte[] contextDocument) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(contextDocument);
+            // 128 bits are plenty to tell contexts apart
+            char[] hex = new char[32];
+            for (int i = 0; i < 16; i++) {
+                hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Gets the uri below which context documents are served, ending with a slash. Subclasses may determine the uri
+     * from the current request.
+     *
+     * @return contexts uri
+     */
+    protected String getContextsUri() {
+        return contextsUri;
+    }
+
+    /**
+     * Gets a published context document.
+     *
+     * @param contextId
+     *         of the document, i.e. the last path segment of the context reference
+     * @return UTF-8 encoded json-ld document holding the context, must not be modified, or null if no such context
+     * has been published
+     */
+    public byte[] getContextDocument(String contextId) {
+        return contextDocuments.get(contextId);
+    }
+}
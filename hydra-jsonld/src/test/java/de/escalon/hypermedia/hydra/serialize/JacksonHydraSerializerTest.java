@@ -55,9 +55,16 @@ public class JacksonHydraSerializerTest {
     StringWriter w = new StringWriter();
 
 
-    @Before
-    public void setUp() {
-        mapper = new ObjectMapper();
+    /**
+     * Creates the hydra serializer which replaces a bean serializer.
+     */
+    private interface HydraSerializerFactory {
+
+        JsonSerializer<?> createSerializer(BeanSerializerBase serializer, SerializationConfig config);
+    }
+
+    private static ObjectMapper mapperWith(final HydraSerializerFactory serializerFactory) {
+        ObjectMapper mapper = new ObjectMapper();
         // see https://github.com/json-ld/json-ld.org/issues/76
         mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
@@ -74,8 +81,7 @@ public class JacksonHydraSerializerTest {
                             JsonSerializer<?> serializer) {
 
                         if (serializer instanceof BeanSerializerBase) {
-                            return new JacksonHydraSerializer(
-                                    (BeanSerializerBase) serializer);
+                            return serializerFactory.createSerializer((BeanSerializerBase) serializer, config);
                         } else {
                             return serializer;
                         }
@@ -83,7 +89,16 @@ public class JacksonHydraSerializerTest {
                 });
             }
         });
+        return mapper;
+    }
 
+    @Before
+    public void setUp() {
+        mapper = mapperWith(new HydraSerializerFactory() {
+            public JsonSerializer<?> createSerializer(BeanSerializerBase serializer, SerializationConfig config) {
+                return new JacksonHydraSerializer(serializer);
+            }
+        });
     }
 
     @Test
@@ -157,6 +172,39 @@ public class JacksonHydraSerializerTest {
                 w.toString());
     }
 
+    @Test
+    public void testWritesPreRenderedContexts() throws IOException {
+        final LdContextFragments contextFragments = new LdContextFragments();
+        ObjectMapper preRenderingMapper = mapperWith(new HydraSerializerFactory() {
+            public JsonSerializer<?> createSerializer(BeanSerializerBase serializer, SerializationConfig config) {
+                return new JacksonHydraSerializer(serializer).withContextFragments(contextFragments);
+            }
+        });
+
+        String expected = mapper.writeValueAsString(new Parent());
+        assertEquals(expected, preRenderingMapper.writeValueAsString(new Parent()));
+        assertEquals(expected, preRenderingMapper.writeValueAsString(new Parent()));
+    }
+
+    @Expose("foaf:Person")
+    interface PersonMixin {
+    }
+
+    @Test
+    public void testWritesResolvedType() throws IOException {
+        ObjectMapper resolvingMapper = mapperWith(new HydraSerializerFactory() {
+            public JsonSerializer<?> createSerializer(BeanSerializerBase serializer, SerializationConfig config) {
+                return new JacksonHydraSerializer(serializer).withResolvedType(config);
+            }
+        });
+        resolvingMapper.addMixIn(Person.class, PersonMixin.class);
+
+        JsonAssert.with(resolvingMapper.writeValueAsString(new Person()))
+                .assertThat("$.@type", is("foaf:Person"));
+        JsonAssert.with(resolvingMapper.writeValueAsString(new Parent()))
+                .assertThat("$.@type", is("Parent"));
+    }
+
     @Test
     public void testFoafVocabIsRendered() throws Exception {
 
@@ -0,0 +1,92 @@
+package de.escalon.hypermedia.hydra.serialize;
+
+import de.escalon.hypermedia.hydra.beans.withterms.Offer;
+import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.hydra.mapping.Vocab;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LdContextFactoryTest {
+
+    private LdContextFactory ldContextFactory = new LdContextFactory();
+
+    private MixinSource mixinSource = new MixinSource() {
+        @Override
+        public Class<?> findMixInClassFor(Class<?> clazz) {
+            return null;
+        }
+    };
+
+    @Vocab("http://xmlns.com/foaf/0.1/")
+    public static class Person {
+        @Expose("foaf:name")
+        public String name = "Dietrich Schulten";
+    }
+
+    @Test
+    public void sharesContextDescriptorPerClassAndMixin() {
+        LdContextDescriptor descriptor = ldContextFactory.getContextDescriptor(Person.class, null);
+
+        assertSame(descriptor, new LdContextFactory().getContextDescriptor(Person.class, null));
+        assertTrue(descriptor.hasStaticTerms());
+        assertEquals("http://xmlns.com/foaf/0.1/", descriptor.getVocab());
+        assertEquals("foaf:name", descriptor.getStaticTerms()
+                .get("name"));
+    }
+
+    @Test
+    public void evaluatesEnumTermsPerInstance() {
+        LdContextDescriptor descriptor = ldContextFactory.getContextDescriptor(Offer.class, null);
+        assertFalse(descriptor.hasStaticTerms());
+
+        Offer offer = new Offer();
+        Map<String, Object> terms = ldContextFactory.getTerms(mixinSource, offer, null);
+        assertEquals("gr:LeaseOut", terms.get("RENT"));
+        assertEquals("gr:hasCurrencyValue", terms.get("price"));
+
+        offer.businessFunction = null;
+        terms = ldContextFactory.getTerms(mixinSource, offer, null);
+        assertFalse(terms.containsKey("RENT"));
+        assertEquals("http://schema.org/", ldContextFactory.getVocab(mixinSource, offer, null));
+    }
+
+    enum ShippingMethod {
+        @Expose("gr:DeliveryModePickUp")
+        PICK_UP,
+        EXPRESS_DELIVERY {
+            @Override
+            public String toString() {
+                return name();
+            }
+        }
+    }
+
+    public static class Shipment {
+        private ShippingMethod shippingMethod;
+
+        public Shipment(ShippingMethod shippingMethod) {
+            this.shippingMethod = shippingMethod;
+        }
+
+        public ShippingMethod getShippingMethod() {
+            return shippingMethod;
+        }
+    }
+
+    @Test
+    public void looksUpEnumTermsByDeclaringEnumType() {
+        Map<String, Object> terms = ldContextFactory.getTerms(mixinSource,
+                new Shipment(ShippingMethod.PICK_UP), null);
+        assertEquals("gr:DeliveryModePickUp", terms.get("PICK_UP"));
+        assertEquals("@vocab", ((Map<?, ?>) terms.get("shippingMethod")).get("@type"));
+
+        terms = ldContextFactory.getTerms(mixinSource, new Shipment(ShippingMethod.EXPRESS_DELIVERY), null);
+        assertEquals("ExpressDelivery", terms.get("EXPRESS_DELIVERY"));
+    }
+}
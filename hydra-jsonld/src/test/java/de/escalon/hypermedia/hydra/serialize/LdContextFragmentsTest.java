@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.hydra.serialize;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class LdContextFragmentsTest {
+
+    private final LdContextFragments contextFragments = new LdContextFragments();
+
+    @Test
+    public void testRendersFragmentPerWriteVocab() throws IOException {
+        LdContext context = LdContext.intern("http://schema.org/", terms());
+
+        assertEquals("{\"@context\":{\"@vocab\":\"http://schema.org/\",\"hydra\":\"http://www.w3.org/ns/hydra/core#\"}}",
+                writeContext(new ObjectMapper(), true, context));
+        assertEquals("{\"@context\":{\"hydra\":\"http://www.w3.org/ns/hydra/core#\"}}",
+                writeContext(new ObjectMapper(), false, context));
+    }
+
+    @Test
+    public void testRendersFragmentWithGeneratorFeatures() throws IOException {
+        LdContext context = LdContext.intern("http://schema.org/", terms());
+        ObjectMapper unquotingMapper = new ObjectMapper();
+        unquotingMapper.configure(JsonGenerator.Feature.QUOTE_FIELD_NAMES, false);
+
+        assertEquals("{\"@context\":{\"hydra\":\"http://www.w3.org/ns/hydra/core#\"}}",
+                writeContext(new ObjectMapper(), false, context));
+        assertEquals("{@context:{hydra:\"http://www.w3.org/ns/hydra/core#\"}}",
+                writeContext(unquotingMapper, false, context));
+        assertEquals("{\"@context\":{\"hydra\":\"http://www.w3.org/ns/hydra/core#\"}}",
+                writeContext(new ObjectMapper(), false, context));
+    }
+
+    @Test
+    public void testRendersFragmentWithCharacterEscapes() throws IOException {
+        Map<String, Object> terms = new LinkedHashMap<String, Object>();
+        terms.put("stra\u00dfe", "http://example.com/stra\u00dfe#");
+        LdContext context = LdContext.intern(null, terms);
+        ObjectMapper escapingMapper = new ObjectMapper();
+        escapingMapper.configure(JsonGenerator.Feature.ESCAPE_NON_ASCII, true);
+
+        assertEquals("{\"@context\":{\"stra\\u00DFe\":\"http://example.com/stra\\u00DFe#\"}}",
+                writeContext(escapingMapper, false, context));
+    }
+
+    private String writeContext(ObjectMapper mapper, boolean writeVocab, LdContext context) throws IOException {
+        StringWriter writer = new StringWriter();
+        JsonGenerator jgen = mapper.getFactory()
+                .createGenerator(writer);
+        jgen.setCodec(mapper);
+        jgen.writeStartObject();
+        contextFragments.writeContext(jgen, writeVocab, context);
+        jgen.writeEndObject();
+        jgen.close();
+        return writer.toString();
+    }
+
+    private static Map<String, Object> terms() {
+        Map<String, Object> terms = new LinkedHashMap<String, Object>();
+        terms.put("hydra", "http://www.w3.org/ns/hydra/core#");
+        return terms;
+    }
+}
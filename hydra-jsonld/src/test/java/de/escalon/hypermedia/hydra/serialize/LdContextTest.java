@@ -7,7 +7,10 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -60,4 +63,59 @@ public class LdContextTest {
 
         assertTrue(childContext.contains(contextWithSomeTerms));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void internsEqualContexts() {
+        LdContext interned = LdContext.intern("http://schema.org", allTerms);
+
+        assertSame(interned, LdContext.intern("http://schema.org", new LinkedHashMap<String, Object>(allTerms)));
+        assertNotSame(interned, LdContext.intern("http://schema.org", someTerms));
+    }
+
+    @Test
+    public void nestsOnlyNewTerms() {
+        LdContext parent = LdContext.intern("http://schema.org", someTerms);
+        LdContext nested = parent.nest(LdContext.intern("http://schema.org", allTerms));
+
+        assertSame(nested, parent.nest(LdContext.intern("http://schema.org", allTerms)));
+        assertEquals(Collections.singleton("rdfs"), nested.terms.keySet());
+        assertFalse(nested.isContainedInParent());
+        assertTrue(nested.hasEqualTerm("hydra", "http://www.w3.org/ns/hydra/core#"));
+        assertTrue(nested.nest(LdContext.intern("http://schema.org", someTerms))
+                .isContainedInParent());
+    }
+
+    @Test
+    public void nestsSameContextSeparatelyPerParent() {
+        LdContext parent = LdContext.intern("http://schema.org", someTerms);
+        LdContext otherParent = LdContext.intern(null, someTerms);
+        LdContext context = LdContext.intern("http://schema.org", allTerms);
+
+        LdContext nested = parent.nest(context);
+        LdContext otherNested = otherParent.nest(context);
+
+        assertNotSame(nested, otherNested);
+        assertSame(parent, nested.getParentContext());
+        assertSame(otherParent, otherNested.getParentContext());
+        assertSame(otherNested, otherParent.nest(context));
+    }
+
+    @Test
+    public void extendsWithAllTerms() {
+        LdContext parent = LdContext.intern("http://schema.org", someTerms);
+        LdContext extended = parent.extend(LdContext.intern("http://schema.org", allTerms));
+
+        assertEquals(allTerms, extended.terms);
+        assertTrue(extended.isInterned());
+        assertSame(extended, parent.extend(LdContext.intern("http://schema.org", allTerms)));
+    }
+
+    @Test
+    public void extendsNonInternedContextsWithoutSharing() {
+        LdContext parent = LdContext.intern("http://schema.org", someTerms);
+
+        assertNotSame(parent.extend(contextWithAllTerms), parent.extend(contextWithAllTerms));
+        assertFalse(parent.extend(contextWithAllTerms)
+                .isInterned());
+    }
+}
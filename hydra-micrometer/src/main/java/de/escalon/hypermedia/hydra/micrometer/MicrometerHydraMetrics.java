@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.hydra.micrometer;
+
+import de.escalon.hypermedia.hydra.serialize.HydraMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports hydra serialization metrics to a Micrometer {@link MeterRegistry}. Register it with the hydra module
+ * using <code>JacksonHydraModule.setMetrics</code>.
+ * <p>
+ * Meters:
+ * </p>
+ * <ul>
+ * <li><code>hydra.context.computation</code>: timer for context computation, tagged <code>cache=hit|miss</code></li>
+ * <li><code>hydra.context.size</code>: size of written <code>@context</code> members in bytes</li>
+ * <li><code>hydra.payload.size</code>: size of written responses in bytes</li>
+ * <li><code>hydra.affordance.serialization</code>: timer for affordances with their operations</li>
+ * <li><code>hydra.supportedproperty.depth</code>: recursion depth of <code>hydra:supportedProperty</code></li>
+ * </ul>
+ */
+public class MicrometerHydraMetrics implements HydraMetrics {
+
+    private final Timer contextComputationCached;
+    private final Timer contextComputationUncached;
+    private final DistributionSummary contextSize;
+    private final DistributionSummary payloadSize;
+    private final Timer affordanceSerialization;
+    private final DistributionSummary supportedPropertyDepth;
+
+    public MicrometerHydraMetrics(MeterRegistry registry) {
+        contextComputationCached = Timer.builder("hydra.context.computation")
+                .description("Time to determine the json-ld context of a bean")
+                .tag("cache", "hit")
+                .register(registry);
+        contextComputationUncached = Timer.builder("hydra.context.computation")
+                .description("Time to determine the json-ld context of a bean")
+                .tag("cache", "miss")
+                .register(registry);
+        contextSize = DistributionSummary.builder("hydra.context.size")
+                .description("Size of written @context members")
+                .baseUnit("bytes")
+                .register(registry);
+        payloadSize = DistributionSummary.builder("hydra.payload.size")
+                .description("Size of written json-ld responses")
+                .baseUnit("bytes")
+                .register(registry);
+        affordanceSerialization = Timer.builder("hydra.affordance.serialization")
+                .description("Time to write an affordance with its operations")
+                .register(registry);
+        supportedPropertyDepth = DistributionSummary.builder("hydra.supportedproperty.depth")
+                .description("Recursion depth of hydra:supportedProperty descriptions")
+                .register(registry);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void contextComputed(long nanos, boolean cached) {
+        (cached ? contextComputationCached : contextComputationUncached).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void contextWritten(long bytes) {
+        contextSize.record(bytes);
+    }
+
+    @Override
+    public void payloadWritten(long bytes) {
+        payloadSize.record(bytes);
+    }
+
+    @Override
+    public void affordanceWritten(long nanos) {
+        affordanceSerialization.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void supportedPropertiesWritten(int depth) {
+        supportedPropertyDepth.record(depth);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.hydra.micrometer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class MicrometerHydraMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private MicrometerHydraMetrics metrics;
+
+    @Before
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new MicrometerHydraMetrics(registry);
+    }
+
+    @Test
+    public void recordsContextComputationByCacheOutcome() {
+        metrics.contextComputed(1000L, true);
+        metrics.contextComputed(2000L, true);
+        metrics.contextComputed(5000L, false);
+
+        assertEquals(2, registry.get("hydra.context.computation")
+                .tag("cache", "hit")
+                .timer()
+                .count());
+        assertEquals(5000.0, registry.get("hydra.context.computation")
+                .tag("cache", "miss")
+                .timer()
+                .totalTime(TimeUnit.NANOSECONDS), 0.0);
+    }
+
+    @Test
+    public void recordsSizes() {
+        metrics.contextWritten(120L);
+        metrics.payloadWritten(2048L);
+        metrics.payloadWritten(1024L);
+
+        assertEquals(120.0, registry.get("hydra.context.size")
+                .summary()
+                .totalAmount(), 0.0);
+        assertEquals(3072.0, registry.get("hydra.payload.size")
+                .summary()
+                .totalAmount(), 0.0);
+    }
+
+    @Test
+    public void recordsAffordancesAndSupportedPropertyDepth() {
+        metrics.affordanceWritten(300L);
+        metrics.supportedPropertiesWritten(1);
+        metrics.supportedPropertiesWritten(3);
+
+        assertEquals(1, registry.get("hydra.affordance.serialization")
+                .timer()
+                .count());
+        assertEquals(3.0, registry.get("hydra.supportedproperty.depth")
+                .summary()
+                .max(), 0.0);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import de.escalon.hypermedia.spring.AffordanceMetadataPrecompiler;
+
+import java.beans.IntrospectionException;
+
+/**
+ * Precompiler which also computes the <code>hydra:supportedProperty</code> descriptions of all request body types
+ * when the context is refreshed, so that the first responses which describe them need not compute them. Register it
+ * instead of an {@link AffordanceMetadataPrecompiler}:
+ * <pre>
+ * &#64;Bean
+ * public HydraAffordanceMetadataPrecompiler affordanceMetadataPrecompiler() {
+ *     return new HydraAffordanceMetadataPrecompiler();
+ * }
+ * </pre>
+ */
+public class HydraAffordanceMetadataPrecompiler extends AffordanceMetadataPrecompiler {
+
+    @Override
+    protected void precompileRequestBody(Class<?> requestBodyType) {
+        try {
+            SupportedProperties.forType(requestBodyType);
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException("cannot describe supported properties of " + requestBodyType.getName(),
+                    e);
+        }
+    }
+}
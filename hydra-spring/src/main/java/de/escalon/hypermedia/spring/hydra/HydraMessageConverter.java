@@ -16,10 +16,18 @@ package de.escalon.hypermedia.spring.hydra;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.escalon.hypermedia.hydra.serialize.CountingOutputStream;
+import de.escalon.hypermedia.hydra.serialize.HydraMetrics;
 import de.escalon.hypermedia.hydra.serialize.ProxyUnwrapper;
 import de.escalon.hypermedia.spring.HypermediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
 import java.util.Arrays;
 
 /**
@@ -29,7 +37,7 @@ public class HydraMessageConverter extends MappingJackson2HttpMessageConverter {
 
 
     public HydraMessageConverter() {
-        this(null);
+        this((ProxyUnwrapper) null);
     }
 
     /**
@@ -39,13 +47,70 @@ public class HydraMessageConverter extends MappingJackson2HttpMessageConverter {
      *         capable of unwrapping proxified Java beans during message conversion.
      */
     public HydraMessageConverter(ProxyUnwrapper proxyUnwrapper, Module... additionalModules) {
+        this(new JacksonHydraModule(proxyUnwrapper), additionalModules);
+    }
+
+    /**
+     * Creates new HydraMessageConverter with a preconfigured hydra module.
+     *
+     * @param hydraModule
+     *         configured hydra module, e.g. with pre-rendered contexts
+     * @param additionalModules
+     *         to register before the hydra module
+     */
+    public HydraMessageConverter(JacksonHydraModule hydraModule, Module... additionalModules) {
         ObjectMapper objectMapper = new ObjectMapper();
         // see https://github.com/json-ld/json-ld.org/issues/76
         objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
         objectMapper.registerModules(additionalModules);
-        objectMapper.registerModule(new JacksonHydraModule(proxyUnwrapper));
+        objectMapper.registerModule(hydraModule);
         this.setObjectMapper(objectMapper);
         this.setSupportedMediaTypes(
                 Arrays.asList(HypermediaTypes.APPLICATION_JSONLD));
     }
+
+    /**
+     * Writes the response body, counting the written bytes if the hydra module reports metrics.
+     */
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        Object metrics = getObjectMapper().getSerializationConfig()
+                .getAttributes()
+                .getAttribute(HydraMetrics.KEY_METRICS);
+        if (metrics instanceof HydraMetrics && ((HydraMetrics) metrics).isEnabled()) {
+            CountingOutputMessage countingOutputMessage = new CountingOutputMessage(outputMessage);
+            super.writeInternal(object, type, countingOutputMessage);
+            ((HydraMetrics) metrics).payloadWritten(countingOutputMessage.getCount());
+        } else {
+            super.writeInternal(object, type, outputMessage);
+        }
+    }
+
+    private static class CountingOutputMessage implements HttpOutputMessage {
+
+        private final HttpOutputMessage delegate;
+        private CountingOutputStream body;
+
+        CountingOutputMessage(HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingOutputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        long getCount() {
+            return body == null ? 0 : body.getCount();
+        }
+    }
 }
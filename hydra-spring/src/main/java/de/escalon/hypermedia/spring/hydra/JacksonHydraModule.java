@@ -16,13 +16,17 @@ package de.escalon.hypermedia.spring.hydra;
 import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
 import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
 import de.escalon.hypermedia.affordance.TypedResource;
+import de.escalon.hypermedia.hydra.serialize.HydraMetrics;
 import de.escalon.hypermedia.hydra.serialize.JacksonHydraSerializer;
+import de.escalon.hypermedia.hydra.serialize.LdContextFragments;
 import de.escalon.hypermedia.hydra.serialize.ProxyUnwrapper;
+import de.escalon.hypermedia.hydra.serialize.RemoteLdContexts;
 import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.ResourceSupport;
@@ -35,6 +39,9 @@ import org.springframework.hateoas.Resources;
 public class JacksonHydraModule extends SimpleModule {
 
     private ProxyUnwrapper proxyUnwrapper;
+    private final PagedResourcesSerializer pagedResourcesSerializer;
+    private LdContextFragments contextFragments;
+    private HydraMetrics metrics;
 
     public JacksonHydraModule() {
         this(null);
@@ -45,17 +52,64 @@ public class JacksonHydraModule extends SimpleModule {
         this.proxyUnwrapper = proxyUnwrapper;
         setMixInAnnotation(ResourceSupport.class, ResourceSupportMixin.class);
         setMixInAnnotation(Resources.class, ResourcesMixin.class);
+        setMixInAnnotation(StreamingResources.class, ResourcesMixin.class);
         setMixInAnnotation(PagedResources.class, PagedResourcesMixin.class);
+        setMixInAnnotation(StreamingPagedResources.class, PagedResourcesMixin.class);
         setMixInAnnotation(Resource.class, ResourceMixin.class);
         setMixInAnnotation(TypedResource.class, TypedResourceMixin.class);
         addSerializer(Resource.class, new ResourceSerializer());
-        addSerializer(PagedResources.class, new PagedResourcesSerializer(proxyUnwrapper));
+        pagedResourcesSerializer = new PagedResourcesSerializer(proxyUnwrapper);
+        addSerializer(PagedResources.class, pagedResourcesSerializer);
+        addSerializer(StreamingContent.class, new StreamingContentSerializer());
 
     }
 
+    /**
+     * Enables or disables writing of pre-rendered <code>@context</code> objects. If enabled, every distinct context
+     * object is rendered once and written as raw json afterwards. Disabled by default. Must be set before the module
+     * is registered with an ObjectMapper.
+     *
+     * @param preRenderedContexts
+     *         true to enable pre-rendered contexts
+     */
+    public void setPreRenderedContexts(boolean preRenderedContexts) {
+        this.contextFragments = preRenderedContexts ? new LdContextFragments() : null;
+        pagedResourcesSerializer.setContextFragments(contextFragments);
+    }
+
+    /**
+     * Lets the module reference remote <code>@context</code> documents instead of writing contexts inline. The
+     * documents must be served by a {@link JsonLdContextController} which uses the same remote contexts. Must be set
+     * before the module is registered with an ObjectMapper.
+     *
+     * @param remoteContexts
+     *         publishing context documents, may be null to write contexts inline
+     */
+    public void setRemoteContexts(RemoteLdContexts remoteContexts) {
+        this.contextFragments = remoteContexts;
+        pagedResourcesSerializer.setContextFragments(contextFragments);
+    }
+
+    /**
+     * Reports serialization metrics to the given metrics. The metrics are stored as attribute of the serialization
+     * config of the ObjectMapper the module is registered with, so they must be set before the module is registered.
+     *
+     * @param metrics
+     *         to report to, may be null to disable metrics
+     */
+    public void setMetrics(HydraMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     public void setupModule(SetupContext context) {
         super.setupModule(context);
 
+        if (metrics != null && context.getOwner() instanceof ObjectMapper) {
+            ObjectMapper mapper = context.getOwner();
+            mapper.setConfig(mapper.getSerializationConfig()
+                    .withAttribute(HydraMetrics.KEY_METRICS, metrics));
+        }
+
         context.addBeanSerializerModifier(new BeanSerializerModifier() {
 
             public JsonSerializer<?> modifySerializer(
@@ -65,7 +119,9 @@ public class JacksonHydraModule extends SimpleModule {
 
                 if (serializer instanceof BeanSerializerBase) {
                     JacksonHydraSerializer jacksonHydraSerializer = new JacksonHydraSerializer(
-                            (BeanSerializerBase) serializer, proxyUnwrapper);
+                            (BeanSerializerBase) serializer, proxyUnwrapper)
+                            .withContextFragments(contextFragments)
+                            .withResolvedType(config);
                     return jacksonHydraSerializer;
                 } else {
                     return serializer;
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import de.escalon.hypermedia.hydra.serialize.RemoteLdContexts;
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Serves the json-ld context documents published by {@link RemoteLdContexts}. Context documents never change, so they
+ * are served with a strong ETag and as immutable. Register it as a bean together with a {@link JacksonHydraModule}
+ * which uses the same remote contexts:
+ * <pre>
+ * ServletRemoteLdContexts remoteContexts = new ServletRemoteLdContexts();
+ * JacksonHydraModule hydraModule = new JacksonHydraModule();
+ * hydraModule.setRemoteContexts(remoteContexts);
+ * converters.add(new HydraMessageConverter(hydraModule));
+ * ...
+ * &#64;Bean
+ * public JsonLdContextController jsonLdContextController() {
+ *     return new JsonLdContextController(remoteContexts);
+ * }
+ * </pre>
+ */
+@Controller
+@RequestMapping(JsonLdContextController.CONTEXTS_PATH)
+public class JsonLdContextController {
+
+    public static final String CONTEXTS_PATH = "/contexts";
+
+    private static final String CACHE_CONTROL_IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private final RemoteLdContexts remoteContexts;
+
+    public JsonLdContextController(RemoteLdContexts remoteContexts) {
+        Assert.notNull(remoteContexts, "remoteContexts must not be null");
+        this.remoteContexts = remoteContexts;
+    }
+
+    /**
+     * Writes the context document directly, independent of the configured message converters.
+     *
+     * @param contextId
+     *         of the requested document
+     * @param ifNoneMatch
+     *         request header, may be null
+     * @param response
+     *         to write to
+     * @throws IOException
+     *         if writing fails
+     */
+    @RequestMapping(value = "/{contextId}", method = RequestMethod.GET)
+    public void getContext(@PathVariable String contextId,
+                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                           HttpServletResponse response) throws IOException {
+        byte[] contextDocument = remoteContexts.getContextDocument(contextId);
+        if (contextDocument == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String eTag = "\"" + contextId + "\"";
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL_IMMUTABLE);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(eTag) || "*".equals(ifNoneMatch.trim()))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(HypermediaTypes.APPLICATION_JSONLD_STR + ";charset=UTF-8");
+        response.setContentLength(contextDocument.length);
+        response.getOutputStream()
+                .write(contextDocument);
+    }
+}
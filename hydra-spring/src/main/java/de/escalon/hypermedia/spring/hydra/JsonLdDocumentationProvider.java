@@ -1,6 +1,7 @@
 package de.escalon.hypermedia.spring.hydra;
 
 import de.escalon.hypermedia.AnnotationUtils;
+import de.escalon.hypermedia.BoundedCache;
 import de.escalon.hypermedia.affordance.ActionInputParameter;
 import de.escalon.hypermedia.hydra.mapping.Expose;
 import de.escalon.hypermedia.hydra.serialize.LdContextFactory;
@@ -12,15 +13,35 @@ import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Created by Dietrich on 05.04.2015.
  */
 public class JsonLdDocumentationProvider implements DocumentationProvider {
 
+    private static final Pattern IRI = Pattern.compile("http(s)?://.+");
+
+    /**
+     * Marks names which have no documentation url.
+     */
+    private static final String NO_URL = new String();
+
     private LdContextFactory ldContextFactory = new LdContextFactory();
 
+    /**
+     * Documentation urls by bean class, exposed name and vocab of the bean.
+     */
+    private final BoundedCache<List<Object>, String> beanUrls = new BoundedCache<List<Object>, String>(4096);
+
+    /**
+     * Documentation urls by declaring class and exposed name, for parameters without value.
+     */
+    private final BoundedCache<List<Object>, String> classUrls = new BoundedCache<List<Object>, String>(4096);
+
     private MixinSource mixinSource = new MixinSource() {
         @Override
         public Class<?> findMixInClassFor(Class<?> clazz) {
@@ -35,12 +56,12 @@ public class JsonLdDocumentationProvider implements DocumentationProvider {
         if (content == null) {
             if (parameter instanceof SpringActionInputParameter) {
                 Class<?> clazz = ((SpringActionInputParameter) parameter).getDeclaringClass();
-                ret = getExposedUrl(parameter.getParameterName(), vocabFromClass(clazz), termsFromClazz(clazz), expose);
+                ret = getExposedUrlFromClass(parameter.getParameterName(), clazz, expose);
             } else {
                 ret = null;
             }
         } else {
-            ret = getExposedUrl(parameter.getParameterName(), vocabFromBean(content), termsFromBean(content), expose);
+            ret = getExposedUrl(parameter.getParameterName(), content, expose);
         }
         return ret;
     }
@@ -52,7 +73,7 @@ public class JsonLdDocumentationProvider implements DocumentationProvider {
 //        final Class<?> mixin = provider.getConfig()
 //                .findMixInClassFor(bean.getClass());
 //        final Expose mixinExpose = findAnnotation(mixin, Expose.class);
-        return getExposedUrl(field.getName(), vocabFromBean(content), termsFromBean(content), expose);
+        return getExposedUrl(field.getName(), content, expose);
     }
 
     @Override
@@ -69,7 +90,7 @@ public class JsonLdDocumentationProvider implements DocumentationProvider {
         } else {
             propertyName = StringUtils.uncapitalize(StringUtils.removeStart(methodName, "is"));
         }
-        return getExposedUrl(propertyName, vocabFromBean(content), termsFromBean(content), expose);
+        return getExposedUrl(propertyName, content, expose);
     }
 
     @Override
@@ -79,20 +100,71 @@ public class JsonLdDocumentationProvider implements DocumentationProvider {
 //        final Class<?> mixin = provider.getConfig()
 //                .findMixInClassFor(bean.getClass());
 //        final Expose mixinExpose = findAnnotation(mixin, Expose.class);
-        return getExposedUrl(clazz.getSimpleName(), vocabFromBean(content), termsFromBean(content), expose);
+        return getExposedUrl(clazz.getSimpleName(), content, expose);
+    }
+
+    /**
+     * Gets documentation url of a name in the context of a bean. Urls are cached per bean class, name and vocab,
+     * unless they are resolved from terms which depend on the bean instance.
+     */
+    @Nullable
+    private String getExposedUrl(String plainName, Object content, Expose expose) {
+        final String name = getExposedName(plainName, expose);
+        final String vocab = vocabFromBean(content);
+        List<Object> key = Arrays.<Object>asList(content.getClass(), name, vocab);
+        String url = beanUrls.get(key);
+        if (url == null) {
+            boolean cacheable = true;
+            if (IRI.matcher(name)
+                    .matches()) {
+                url = name;
+            } else if (name.contains(":")) {
+                url = resolveCurie(termsFromBean(content), name);
+                cacheable = ldContextFactory.getContextDescriptor(content.getClass(), null)
+                        .hasStaticTerms();
+            } else {
+                url = makeVocabUrl(vocab, name);
+            }
+            if (cacheable) {
+                putUrl(beanUrls, key, url);
+            }
+            return url;
+        }
+        return url == NO_URL ? null : url;
     }
 
     @Nullable
-    private String getExposedUrl(String plainName, String vocab, Map<String, Object> terms, Expose expose) {
+    private String getExposedUrlFromClass(String plainName, Class<?> clazz, Expose expose) {
+        final String name = getExposedName(plainName, expose);
+        List<Object> key = Arrays.<Object>asList(clazz, name);
+        String url = classUrls.get(key);
+        if (url == null) {
+            url = getExposedUrl(name, vocabFromClass(clazz), termsFromClazz(clazz));
+            putUrl(classUrls, key, url);
+            return url;
+        }
+        return url == NO_URL ? null : url;
+    }
+
+    private static void putUrl(BoundedCache<List<Object>, String> urls, List<Object> key, @Nullable String url) {
+        urls.cache(key, url == null ? NO_URL : url);
+    }
+
+    private static String getExposedName(String plainName, @Nullable Expose expose) {
         final String name;
         if (expose != null) {
             name = expose.value(); // expose is better than Java name
         } else {
             name = plainName;
         }
+        return name;
+    }
 
+    @Nullable
+    private String getExposedUrl(String name, String vocab, Map<String, Object> terms) {
         String url;
-        if (name.matches("http(s)?://.+")) {
+        if (IRI.matcher(name)
+                .matches()) {
             url = name;
         } else if (name.contains(":")) {
             url = resolveCurie(terms, name);
@@ -126,7 +198,7 @@ public class JsonLdDocumentationProvider implements DocumentationProvider {
         if (content == null) {
             ret = null;
         } else {
-            ret = getExposedUrl(name, vocabFromBean(content), termsFromBean(content), null);
+            ret = getExposedUrl(name, content, null);
         }
         return ret;
     }
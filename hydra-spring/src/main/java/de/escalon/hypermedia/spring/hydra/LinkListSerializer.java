@@ -13,41 +13,33 @@
 
 package de.escalon.hypermedia.spring.hydra;
 
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import de.escalon.hypermedia.BoundedCache;
 import de.escalon.hypermedia.PropertyUtils;
 import de.escalon.hypermedia.action.Cardinality;
 import de.escalon.hypermedia.action.Input;
 import de.escalon.hypermedia.affordance.*;
 import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.hydra.serialize.HydraMetrics;
 import de.escalon.hypermedia.hydra.serialize.JacksonHydraSerializer;
+import de.escalon.hypermedia.hydra.serialize.JsonFragment;
 import de.escalon.hypermedia.hydra.serialize.JsonLdKeywords;
 import de.escalon.hypermedia.hydra.serialize.LdContext;
 import de.escalon.hypermedia.hydra.serialize.LdContextFactory;
-import de.escalon.hypermedia.spring.SpringActionInputParameter;
+import de.escalon.hypermedia.hydra.serialize.NoOpHydraMetrics;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.MethodParameter;
-import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.hateoas.IanaRels;
 import org.springframework.hateoas.Link;
 import org.springframework.util.Assert;
 
-import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.io.IOException;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.io.StringWriter;
 import java.util.*;
 
 /**
@@ -59,6 +51,9 @@ public class LinkListSerializer extends StdSerializer<List<Link>> {
 
     private static final String IANA_REL_PREFIX = "urn:iana:link-relations:";
 
+    private static final BoundedCache<List<Object>, JsonFragment> operationFragments =
+            new BoundedCache<List<Object>, JsonFragment>(2048);
+
 
     public LinkListSerializer() {
         super(List.class, false);
@@ -130,6 +125,7 @@ public class LinkListSerializer extends StdSerializer<List<Link>> {
                     .KEY_LD_CONTEXT);
             String currentVocab = (contextStack != null && !contextStack.isEmpty()) ?
                     contextStack.peek().vocab : null;
+            HydraMetrics metrics = JacksonHydraSerializer.getMetrics(serializerProvider);
 
             // related collections
             if (!collectionAffordances.isEmpty()) {
@@ -137,6 +133,7 @@ public class LinkListSerializer extends StdSerializer<List<Link>> {
                 jgen.writeArrayFieldStart("hydra:collection");
 
                 for (Affordance collectionAffordance : collectionAffordances) {
+                    long start = metrics.isEnabled() ? System.nanoTime() : 0L;
                     jgen.writeStartObject();
                     jgen.writeStringField(JsonLdKeywords.AT_TYPE, "hydra:Collection");
                     PartialUriTemplateComponents templateComponents =
@@ -181,18 +178,22 @@ public class LinkListSerializer extends StdSerializer<List<Link>> {
                     if (!actionDescriptors.isEmpty()) {
                         jgen.writeArrayFieldStart("hydra:operation");
                     }
-                    writeActionDescriptors(jgen, currentVocab, actionDescriptors);
+                    writeActionDescriptors(jgen, currentVocab, actionDescriptors, metrics);
                     if (!actionDescriptors.isEmpty()) {
                         jgen.writeEndArray(); // end hydra:operation
                     }
 
 
                     jgen.writeEndObject(); // end collection
+                    if (metrics.isEnabled()) {
+                        metrics.affordanceWritten(System.nanoTime() - start);
+                    }
                 }
                 jgen.writeEndArray();
             }
 
             for (Affordance affordance : affordances) {
+                long start = metrics.isEnabled() ? System.nanoTime() : 0L;
                 final String rel = affordance.getRel();
                 List<ActionDescriptor> actionDescriptors = affordance.getActionDescriptors();
 
@@ -205,7 +206,7 @@ public class LinkListSerializer extends StdSerializer<List<Link>> {
                 }
 
 
-                writeActionDescriptors(jgen, currentVocab, actionDescriptors);
+                writeActionDescriptors(jgen, currentVocab, actionDescriptors, metrics);
 
                 if (!actionDescriptors.isEmpty()) {
                     jgen.writeEndArray(); // end hydra:operation
@@ -214,6 +215,9 @@ public class LinkListSerializer extends StdSerializer<List<Link>> {
                         jgen.writeEndObject(); // end rel
                     }
                 }
+                if (metrics.isEnabled()) {
+                    metrics.affordanceWritten(System.nanoTime() - start);
+                }
             }
 
             for (Link simpleLink : simpleLinks) {
@@ -275,211 +279,142 @@ public class LinkListSerializer extends StdSerializer<List<Link>> {
 
 
     private void writeActionDescriptors(JsonGenerator jgen, String currentVocab, List<ActionDescriptor>
-            actionDescriptors) throws IOException, IntrospectionException {
+            actionDescriptors, HydraMetrics metrics) throws IOException, IntrospectionException {
         for (ActionDescriptor actionDescriptor : actionDescriptors) {
-            jgen.writeStartObject(); // begin a hydra:Operation
+            final ActionInputParameter requestBodyInputParameter = actionDescriptor.getRequestBody();
+            // without request body value, the operation does not depend on the call
+            if (jgen.getPrettyPrinter() == null && (requestBodyInputParameter == null
+                    || requestBodyInputParameter.getValue() == null)) {
+                writeOperationFragment(jgen, currentVocab, actionDescriptor, metrics);
+            } else {
+                writeActionDescriptor(jgen, currentVocab, actionDescriptor, metrics);
+            }
+        }
+    }
+
+    /**
+     * Writes a hydra:Operation whose request body has no value from a fragment which is rendered once per
+     * operation metadata and vocab, and rendered again if the generator settings change. Raw values bypass pretty
+     * printers, hence the fragment must not be used with them.
+     */
+    private void writeOperationFragment(JsonGenerator jgen, String currentVocab, ActionDescriptor
+            actionDescriptor, HydraMetrics metrics) throws IOException, IntrospectionException {
+        final ActionInputParameter requestBodyInputParameter = actionDescriptor.getRequestBody();
+        final Class<?> requestBodyType;
+        final Input requestBodyInput;
+        if (requestBodyInputParameter == null) {
+            requestBodyType = null;
+            requestBodyInput = null;
+        } else {
+            requestBodyType = requestBodyInputParameter.getParameterType();
+            requestBodyInput = requestBodyInputParameter.getAnnotation(Input.class);
+        }
+        // include and exclude rules of the request body are the only other input
+        List<Object> key = Arrays.<Object>asList(currentVocab, actionDescriptor.getHttpMethod(),
+                actionDescriptor.getSemanticActionType(), requestBodyType, requestBodyInput);
+        JsonFragment operationFragment = operationFragments.get(key);
+        if (operationFragment == null || !operationFragment.isWritableTo(jgen)) {
+            StringWriter writer = new StringWriter();
+            JsonGenerator fragmentGenerator = JsonFragment.createGenerator(jgen, writer);
+            writeActionDescriptor(fragmentGenerator, currentVocab, actionDescriptor, NoOpHydraMetrics.INSTANCE);
+            fragmentGenerator.close();
+            operationFragment = new JsonFragment(jgen, writer.toString());
+            operationFragments.put(key, operationFragment);
+        }
+        jgen.writeRawValue(operationFragment.getJson());
+        if (metrics.isEnabled() && requestBodyType != null) {
+            reportSupportedProperties(SupportedProperties.forType(requestBodyType), metrics);
+        }
+    }
 
-            final String semanticActionType = actionDescriptor.getSemanticActionType();
-            if (semanticActionType != null) {
-                jgen.writeStringField("@type", semanticActionType);
+    private void reportSupportedProperties(SupportedProperties supportedProperties, HydraMetrics metrics) {
+        metrics.supportedPropertiesWritten(supportedProperties.getDepth());
+        for (SupportedProperties.SupportedProperty supportedProperty : supportedProperties.getProperties()) {
+            if (!supportedProperty.isSingleValue()) {
+                reportSupportedProperties(supportedProperty.getNestedProperties(), metrics);
             }
-            jgen.writeStringField("hydra:method", actionDescriptor.getHttpMethod());
+        }
+    }
 
-            final ActionInputParameter requestBodyInputParameter = actionDescriptor.getRequestBody();
-            if (requestBodyInputParameter != null) {
+    private void writeActionDescriptor(JsonGenerator jgen, String currentVocab, ActionDescriptor actionDescriptor,
+                                       HydraMetrics metrics) throws IOException, IntrospectionException {
+        jgen.writeStartObject(); // begin a hydra:Operation
 
-                jgen.writeObjectFieldStart("hydra:expects"); // begin hydra:expects
+        final String semanticActionType = actionDescriptor.getSemanticActionType();
+        if (semanticActionType != null) {
+            jgen.writeStringField("@type", semanticActionType);
+        }
+        jgen.writeStringField("hydra:method", actionDescriptor.getHttpMethod());
 
-                final Class<?> clazz = requestBodyInputParameter.getParameterType();
-                final Expose classExpose = clazz.getAnnotation(Expose.class);
-                final String typeName;
-                if (classExpose != null) {
-                    typeName = classExpose.value();
-                } else {
-                    typeName = requestBodyInputParameter.getParameterType()
-                            .getSimpleName();
-                }
-                jgen.writeStringField("@type", typeName);
+        final ActionInputParameter requestBodyInputParameter = actionDescriptor.getRequestBody();
+        if (requestBodyInputParameter != null) {
 
-                jgen.writeArrayFieldStart("hydra:supportedProperty"); // begin hydra:supportedProperty
-                // TODO check need for allRootParameters and requestBodyInputParameter here:
-                recurseSupportedProperties(jgen, currentVocab, clazz, actionDescriptor,
-                        requestBodyInputParameter, requestBodyInputParameter.getValue(), "");
-                jgen.writeEndArray(); // end hydra:supportedProperty
+            jgen.writeObjectFieldStart("hydra:expects"); // begin hydra:expects
 
-                jgen.writeEndObject(); // end hydra:expects
+            final Class<?> clazz = requestBodyInputParameter.getParameterType();
+            final Expose classExpose = clazz.getAnnotation(Expose.class);
+            final String typeName;
+            if (classExpose != null) {
+                typeName = classExpose.value();
+            } else {
+                typeName = requestBodyInputParameter.getParameterType()
+                        .getSimpleName();
             }
+            jgen.writeStringField("@type", typeName);
+
+            jgen.writeArrayFieldStart("hydra:supportedProperty"); // begin hydra:supportedProperty
+            writeSupportedProperties(jgen, currentVocab, SupportedProperties.forType(clazz),
+                    requestBodyInputParameter, requestBodyInputParameter.getValue(), metrics);
+            jgen.writeEndArray(); // end hydra:supportedProperty
 
-            jgen.writeEndObject(); // end hydra:Operation
+            jgen.writeEndObject(); // end hydra:expects
         }
+
+        jgen.writeEndObject(); // end hydra:Operation
     }
 
     /**
      * Writes bean description recursively.
      *
-     * @param jgen              to write to
-     * @param currentVocab      in context
-     * @param valueType         class of value
-     * @param allRootParameters of the method that receives the request body
-     * @param rootParameter     the request body
-     * @param currentCallValue  the value at the current recursion level
-     * @param propertyPath      of the current recursion level
-     * @throws IntrospectionException
+     * @param jgen                to write to
+     * @param currentVocab        in context
+     * @param supportedProperties precompiled description of the current recursion level
+     * @param rootParameter       the request body
+     * @param currentCallValue    the value at the current recursion level
+     * @param metrics             to report the recursion depth to
      * @throws IOException
      */
-    private void recurseSupportedProperties(JsonGenerator jgen, String currentVocab, Class<?>
-            valueType, ActionDescriptor allRootParameters,
-                                            ActionInputParameter rootParameter, Object currentCallValue,
-                                            String propertyPath)
-            throws IntrospectionException,
-            IOException {
-
-
-        Map<String, ActionInputParameter> properties = new HashMap<String, ActionInputParameter>();
+    private void writeSupportedProperties(JsonGenerator jgen, String currentVocab,
+                                          SupportedProperties supportedProperties,
+                                          ActionInputParameter rootParameter, Object currentCallValue,
+                                          HydraMetrics metrics) throws IOException {
 
-        // collect supported properties from ctor
-
-        Constructor[] constructors = valueType.getConstructors();
-        // find default ctor
-        Constructor constructor = PropertyUtils.findDefaultCtor(constructors);
-        // find ctor with JsonCreator ann
-        if (constructor == null) {
-            constructor = PropertyUtils.findJsonCreator(constructors, JsonCreator.class);
-        }
-        if (constructor == null) {
-            // TODO this can be a generic collection, find a way to describe it
-            LOG.warn("can't describe supported properties, no default constructor or JsonCreator found for type " + valueType
-                    .getName());
-            return;
-        }
-
-        int parameterCount = constructor.getParameterTypes().length;
-        if (parameterCount > 0) {
-            Annotation[][] annotationsOnParameters = constructor.getParameterAnnotations();
-
-            Class[] parameters = constructor.getParameterTypes();
-            int paramIndex = 0;
-            for (Annotation[] annotationsOnParameter : annotationsOnParameters) {
-                for (Annotation annotation : annotationsOnParameter) {
-                    if (JsonProperty.class == annotation.annotationType()) {
-                        JsonProperty jsonProperty = (JsonProperty) annotation;
-                        // TODO use required attribute of JsonProperty
-                        String paramName = jsonProperty.value();
-
-                        Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue, paramName);
-
-                        ActionInputParameter constructorParamInputParameter =
-                                new SpringActionInputParameter(
-                                        new MethodParameter(constructor, paramIndex), propertyValue);
-
-                        // TODO collect ctor params, setter params and process
-                        // TODO then handle single, collection and bean for both
-                        properties.put(paramName, constructorParamInputParameter);
-                        paramIndex++; // increase for each @JsonProperty
-                    }
-                }
-            }
-            Assert.isTrue(parameters.length == paramIndex,
-                    "not all constructor arguments of @JsonCreator " + constructor.getName() +
-                            " are annotated with @JsonProperty");
-        }
-
-        // collect supported properties from setters
-
-        // TODO support Option provider by other method args?
-        final BeanInfo beanInfo = Introspector.getBeanInfo(valueType);
-        final PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-        // TODO collection and map
-        // TODO distinguish which properties should be printed as supported - now just setters
-        for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-            final Method writeMethod = propertyDescriptor.getWriteMethod();
-            if (writeMethod == null) {
-                continue;
-            }
-            // TODO: the property name must be a valid URI - need to check context for terms?
-            String propertyName = getWritableExposedPropertyOrPropertyName(propertyDescriptor);
-
-            Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue, propertyDescriptor
-                    .getName());
-
-            MethodParameter methodParameter = new MethodParameter(propertyDescriptor.getWriteMethod(), 0);
-            ActionInputParameter propertySetterInputParameter = new SpringActionInputParameter(
-                    methodParameter, propertyValue);
-
-            properties.put(propertyName, propertySetterInputParameter);
+        if (metrics.isEnabled()) {
+            metrics.supportedPropertiesWritten(supportedProperties.getDepth());
         }
 
         // write all supported properties
-        // TODO we are using the annotatedParameter.parameterName but should use the key of properties here:
-        for (ActionInputParameter annotatedParameter : properties.values()) {
-            String nextPropertyPathLevel = propertyPath.isEmpty() ? annotatedParameter.getParameterName() :
-                    propertyPath + '.' + annotatedParameter.getParameterName();
-            Class<?> parameterType = annotatedParameter.getParameterType();
-            if (DataType.isSingleValueType(parameterType)) {
-
-                final Object[] possiblePropertyValues = rootParameter.getPossibleValues(allRootParameters);
-
+        for (SupportedProperties.SupportedProperty supportedProperty : supportedProperties.getProperties()) {
+            String nextPropertyPathLevel = supportedProperty.getPropertyPath();
+            if (supportedProperty.isSingleValue()) {
                 if (rootParameter.isIncluded(nextPropertyPathLevel) && !rootParameter.isExcluded
                         (nextPropertyPathLevel)) {
-                    writeSupportedProperty(jgen, currentVocab, annotatedParameter,
-                            annotatedParameter.getParameterName(), possiblePropertyValues);
+                    Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue,
+                            supportedProperty.getValueName());
+                    writeSupportedProperty(jgen, currentVocab, supportedProperty.getInputParameter()
+                                    .withValue(propertyValue), supportedProperty.getParameterName());
                 }
-                // TODO collections?
-                //                        } else if (DataType.isArrayOrCollection(parameterType)) {
-                //                            Object[] callValues = rootParameter.getValues();
-                //                            int items = callValues.length;
-                //                            for (int i = 0; i < items; i++) {
-                //                                Object value;
-                //                                if (i < callValues.length) {
-                //                                    value = callValues[i];
-                //                                } else {
-                //                                    value = null;
-                //                                }
-                //                                recurseSupportedProperties(jgen, currentVocab, rootParameter
-                // .getParameterType(),
-                //                                        allRootParameters, rootParameter, value);
-                //                            }
             } else {
                 jgen.writeStartObject();
-                jgen.writeStringField("hydra:property", annotatedParameter.getParameterName());
+                jgen.writeStringField("hydra:property", supportedProperty.getParameterName());
                 // TODO: is the property required -> for bean props we need the Access annotation to express that
 
-                Expose expose = AnnotationUtils.getAnnotation(parameterType, Expose.class);
-                String subClass = null;
-                if (expose != null) {
-                    subClass = expose.value();
-                } else {
-                    if (List.class.isAssignableFrom(parameterType)) {
-                        Type genericParameterType = annotatedParameter.getGenericParameterType();
-                        if (genericParameterType instanceof ParameterizedType) {
-                            ParameterizedType parameterizedType = (ParameterizedType) genericParameterType;
-                            Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
-                            if (actualTypeArguments.length == 1) {
-                                Type actualTypeArgument = actualTypeArguments[0];
-                                if (actualTypeArgument instanceof Class) {
-                                    parameterType = (Class<?>) actualTypeArgument;
-                                    subClass = parameterType.getSimpleName();
-                                } else if (actualTypeArgument instanceof ParameterizedType) {
-                                    ParameterizedType genericItemType = (ParameterizedType) actualTypeArgument;
-                                    Type rawType = genericItemType.getRawType();
-                                    if (rawType instanceof Class) {
-                                        parameterType = (Class<?>) rawType;
-                                        subClass = parameterType.getSimpleName();
-                                    }
-                                }
-                            }
-                        }
-                        if (subClass != null) {
-                            String multipleValueProp = getPropertyOrClassNameInVocab(currentVocab,
-                                    "multipleValues",
-                                    LdContextFactory.HTTP_SCHEMA_ORG,
-                                    "schema:");
-                            jgen.writeBooleanField(multipleValueProp, true);
-                        }
-                    }
-                }
-                if (subClass == null) {
-                    subClass = parameterType.getSimpleName();
+                if (supportedProperty.isMultipleValues()) {
+                    String multipleValueProp = getPropertyOrClassNameInVocab(currentVocab,
+                            "multipleValues",
+                            LdContextFactory.HTTP_SCHEMA_ORG,
+                            "schema:");
+                    jgen.writeBooleanField(multipleValueProp, true);
                 }
                 jgen.writeObjectFieldStart(getPropertyOrClassNameInVocab(currentVocab, "rangeIncludes",
                         LdContextFactory.HTTP_SCHEMA_ORG, "schema:"));
@@ -487,16 +422,15 @@ public class LinkListSerializer extends StdSerializer<List<Link>> {
                 jgen.writeStringField(getPropertyOrClassNameInVocab(currentVocab,
                         "subClassOf",
                         "http://www.w3.org/2000/01/rdf-schema#",
-                        "rdfs:"), subClass);
+                        "rdfs:"), supportedProperty.getSubClass());
 
                 jgen.writeArrayFieldStart("hydra:supportedProperty");
                 // TODO let defaultValue be an filled list, if needed
-                Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue, annotatedParameter
+                Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue, supportedProperty
                         .getParameterName());
 
-                recurseSupportedProperties(jgen, currentVocab, parameterType,
-                        allRootParameters,
-                        rootParameter, propertyValue, nextPropertyPathLevel);
+                writeSupportedProperties(jgen, currentVocab, supportedProperty.getNestedProperties(),
+                        rootParameter, propertyValue, metrics);
                 jgen.writeEndArray();
 
                 jgen.writeEndObject();
@@ -533,8 +467,7 @@ public class LinkListSerializer extends StdSerializer<List<Link>> {
 
     private void writeSupportedProperty(JsonGenerator jgen, String currentVocab,
                                         ActionInputParameter actionInputParameter,
-                                        String propertyName, @SuppressWarnings("unused") Object[]
-                                                possiblePropertyValues)
+                                        String propertyName)
             throws IOException {
 
         jgen.writeStartObject();
@@ -550,29 +483,14 @@ public class LinkListSerializer extends StdSerializer<List<Link>> {
         }
         jgen.writeStringField("hydra:property", propertyName);
 
-        writePossiblePropertyValues(jgen, currentVocab, actionInputParameter, possiblePropertyValues);
+        writePossiblePropertyValues(jgen, currentVocab, actionInputParameter);
 
 
         jgen.writeEndObject();
     }
 
     private void writePossiblePropertyValues(JsonGenerator jgen, String currentVocab, ActionInputParameter
-            actionInputParameter, @SuppressWarnings("unused") Object[] possiblePropertyValues) throws IOException {
-        // Enable the following to list possible values.
-        // Problem: how to express individuals only for certain hydra:options
-        // not all hydra:options should be taken as uris, sometimes they might be just literals
-        // how to make that clear to the client?
-        // maybe we must write them out for options
-//        if (possiblePropertyValues.length > 0) {
-//            jgen.writeArrayFieldStart("hydra:option");
-//
-//            for (Object possibleValue : possiblePropertyValues) {
-//                // TODO: apply "hydra:option" : { "@type": "@vocab"} to context for enums
-//                writeScalarValue(jgen, possibleValue, rootParameter.getParameterType());
-//            }
-//            jgen.writeEndArray();
-//        }
-
+            actionInputParameter) throws IOException {
         if (actionInputParameter.isArrayOrCollection()) {
             jgen.writeBooleanField(getPropertyOrClassNameInVocab(currentVocab, "multipleValues",
                     LdContextFactory.HTTP_SCHEMA_ORG, "schema:"), true);
@@ -753,26 +671,6 @@ public class LinkListSerializer extends StdSerializer<List<Link>> {
         return property;
     }
 
-    /**
-     * Gets exposed property or parameter name for properties with an appropriate setter (=write) method.
-     *
-     * @param inputParameter for exposure
-     * @return property name
-     */
-    private String getWritableExposedPropertyOrPropertyName(PropertyDescriptor inputParameter) {
-
-        final Method writeMethod = inputParameter.getWriteMethod();
-        final Expose expose = writeMethod
-                .getAnnotation(Expose.class);
-        String propertyName;
-        if (expose != null) {
-            propertyName = expose.value();
-        } else {
-            propertyName = inputParameter.getName();
-        }
-        return propertyName;
-    }
-
     @Override
     public boolean isUnwrappingSerializer() {
         return true;
@@ -14,11 +14,20 @@
 package de.escalon.hypermedia.spring.hydra;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
 import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.SerializerFactory;
+import com.fasterxml.jackson.databind.ser.impl.UnwrappingBeanPropertyWriter;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.fasterxml.jackson.databind.util.NameTransformer;
 import de.escalon.hypermedia.hydra.serialize.*;
@@ -27,17 +36,44 @@ import org.springframework.hateoas.PagedResources;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static de.escalon.hypermedia.hydra.serialize.JacksonHydraSerializer.KEY_LD_CONTEXT;
 
 /**
  * Serializer for Resources. Created by dschulten on 15.09.2014.
+ * <p>
+ * The bean serializer which renders the members and links of a PagedResources class is created once per class by
+ * the contextual serializer of an ObjectMapper, not per response.
+ * </p>
  */
 @SuppressWarnings("unused")
-public class PagedResourcesSerializer extends StdSerializer<PagedResources> {
+public class PagedResourcesSerializer extends StdSerializer<PagedResources> implements ContextualSerializer {
+
+    private static final String LINKS_PROPERTY = "links";
 
     private final static Set<String> navigationRels = new HashSet<String>();
 
+    /**
+     * Creates the bean serializers for PagedResources classes, with a links property which leaves out the links
+     * rendered as hydra:view.
+     */
+    private static final SerializerFactory DELEGATE_FACTORY = BeanSerializerFactory.instance
+            .withSerializerModifier(new BeanSerializerModifier() {
+                @Override
+                public List<BeanPropertyWriter> changeProperties(SerializationConfig config,
+                                                                 BeanDescription beanDesc,
+                                                                 List<BeanPropertyWriter> beanProperties) {
+                    List<BeanPropertyWriter> ret = new ArrayList<BeanPropertyWriter>(beanProperties.size());
+                    for (BeanPropertyWriter beanProperty : beanProperties) {
+                        ret.add(LINKS_PROPERTY.equals(beanProperty.getName()) ?
+                                withNonNavigationLinks(beanProperty) : beanProperty);
+                    }
+                    return ret;
+                }
+            });
+
 
     static {
         Collections.addAll(navigationRels, Link.REL_FIRST, Link.REL_NEXT, Link.REL_PREVIOUS, Link.REL_LAST);
@@ -45,6 +81,8 @@ public class PagedResourcesSerializer extends StdSerializer<PagedResources> {
 
     private final LdContextFactory ldContextFactory;
     private final ProxyUnwrapper proxyUnwrapper;
+    private LdContextFragments contextFragments;
+    private final ConcurrentMap<Class<?>, JsonSerializer<Object>> delegates;
 
     @SuppressWarnings("unused")
     public PagedResourcesSerializer(ProxyUnwrapper proxyUnwrapper) {
@@ -52,6 +90,40 @@ public class PagedResourcesSerializer extends StdSerializer<PagedResources> {
         this.ldContextFactory = new LdContextFactory();
         this.proxyUnwrapper = proxyUnwrapper;
         ldContextFactory.setProxyUnwrapper(proxyUnwrapper);
+        this.delegates = null;
+    }
+
+    private PagedResourcesSerializer(PagedResourcesSerializer source) {
+        super(PagedResources.class);
+        this.ldContextFactory = source.ldContextFactory;
+        this.proxyUnwrapper = source.proxyUnwrapper;
+        this.contextFragments = source.contextFragments;
+        this.delegates = new ConcurrentHashMap<Class<?>, JsonSerializer<Object>>();
+    }
+
+    /**
+     * Lets the serializer write pre-rendered context objects as raw json.
+     *
+     * @param contextFragments
+     *         holding rendered context objects, may be null to render every context object
+     */
+    public void setContextFragments(LdContextFragments contextFragments) {
+        this.contextFragments = contextFragments;
+    }
+
+    /**
+     * Creates a serializer which keeps the bean serializers it uses for the configuration of the calling
+     * ObjectMapper.
+     *
+     * @param provider
+     *         of calling ObjectMapper
+     * @param property
+     *         being serialized, may be null
+     * @return contextual serializer
+     */
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) {
+        return delegates == null ? new PagedResourcesSerializer(this) : this;
     }
 
     @Override
@@ -59,11 +131,7 @@ public class PagedResourcesSerializer extends StdSerializer<PagedResources> {
             throws
             IOException {
 
-        final SerializationConfig config = serializerProvider.getConfig();
-        JavaType javaType = config.constructType(pagedResources.getClass());
-
-        JsonSerializer<Object> serializer = BeanSerializerFactory.instance.createSerializer(serializerProvider,
-                javaType);
+        JsonSerializer<Object> membersSerializer = getDelegate(pagedResources.getClass(), serializerProvider);
 
         // replicate pretty much everything from JacksonHydraSerializer
         // since we must reorganize the internals of pagedResources to get a hydra collection
@@ -75,31 +143,15 @@ public class PagedResourcesSerializer extends StdSerializer<PagedResources> {
             serializerProvider.setAttribute(KEY_LD_CONTEXT, contextStack);
         }
 
-        // TODO: filter next/previous/first/last from link list - maybe create new PagedResources without them?
-        List<Link> links = pagedResources.getLinks();
-        List<Link> filteredLinks = new ArrayList<Link>();
-        for (Link link : links) {
-            String rel = link.getRel();
-            if (navigationRels.contains(rel)) {
-                continue;
-            } else {
-                filteredLinks.add(link);
-            }
-        }
-
-        PagedResources toRender = new PagedResources(pagedResources.getContent(), pagedResources.getMetadata(),
-                filteredLinks);
-
         jgen.writeStartObject();
 
-        serializeContext(toRender, jgen, serializerProvider, contextStack);
+        serializeContext(pagedResources, jgen, serializerProvider, contextStack);
 
         jgen.writeStringField(JsonLdKeywords.AT_TYPE, "hydra:Collection");
 
 
-        // serialize with PagedResourcesMixin
-        serializer.unwrappingSerializer(NameTransformer.NOP)
-                .serialize(toRender, jgen, serializerProvider);
+        // serialize with PagedResourcesMixin, next/previous/first/last links go to hydra:view
+        membersSerializer.serialize(pagedResources, jgen, serializerProvider);
 
         PagedResources.PageMetadata metadata = pagedResources.getMetadata();
         jgen.writeNumberField("hydra:totalItems", metadata.getTotalElements());
@@ -126,6 +178,114 @@ public class PagedResourcesSerializer extends StdSerializer<PagedResources> {
 
     }
 
+    /**
+     * Gets the unwrapping bean serializer which writes the members and links of a PagedResources class. Views,
+     * property filters and any-getters are handled by the bean serializer.
+     */
+    private JsonSerializer<Object> getDelegate(Class<?> pagedResourcesClass, SerializerProvider serializerProvider)
+            throws JsonMappingException {
+        JsonSerializer<Object> serializer = delegates == null ? null : delegates.get(pagedResourcesClass);
+        if (serializer == null) {
+            JavaType javaType = serializerProvider.getConfig()
+                    .constructType(pagedResourcesClass);
+            serializer = DELEGATE_FACTORY.createSerializer(serializerProvider, javaType);
+            if (serializer instanceof ResolvableSerializer) {
+                ((ResolvableSerializer) serializer).resolve(serializerProvider);
+            }
+            serializer = serializer.unwrappingSerializer(NameTransformer.NOP);
+            if (delegates != null) {
+                JsonSerializer<Object> existing = delegates.putIfAbsent(pagedResourcesClass, serializer);
+                if (existing != null) {
+                    serializer = existing;
+                }
+            }
+        }
+        return serializer;
+    }
+
+    private static BeanPropertyWriter withNonNavigationLinks(BeanPropertyWriter linksProperty) {
+        if (linksProperty.getSerializer() == null) {
+            return linksProperty;
+        }
+        if (linksProperty instanceof UnwrappingBeanPropertyWriter) {
+            return new UnwrappingNonNavigationLinksWriter(linksProperty);
+        }
+        return new NonNavigationLinksWriter(linksProperty);
+    }
+
+    /**
+     * Gets the links which are not rendered as part of hydra:view.
+     *
+     * @param links
+     *         of paged resources
+     * @return given links if there are no navigation links, otherwise a filtered list
+     */
+    private static List<Link> getNonNavigationLinks(List<Link> links) {
+        List<Link> filteredLinks = null;
+        for (int i = 0; i < links.size(); i++) {
+            Link link = links.get(i);
+            if (navigationRels.contains(link.getRel())) {
+                if (filteredLinks == null) {
+                    filteredLinks = new ArrayList<Link>(links.subList(0, i));
+                }
+            } else if (filteredLinks != null) {
+                filteredLinks.add(link);
+            }
+        }
+        return filteredLinks == null ? links : filteredLinks;
+    }
+
+    private static class NonNavigationLinksWriter extends BeanPropertyWriter {
+
+        NonNavigationLinksWriter(BeanPropertyWriter base) {
+            super(base);
+            _serializer = new NonNavigationLinksSerializer(_serializer);
+        }
+    }
+
+    private static class UnwrappingNonNavigationLinksWriter extends UnwrappingBeanPropertyWriter {
+
+        UnwrappingNonNavigationLinksWriter(BeanPropertyWriter base) {
+            super(base, NameTransformer.NOP);
+            _serializer = new NonNavigationLinksSerializer(_serializer);
+        }
+    }
+
+    /**
+     * Writes the links of a PagedResources which are not rendered as part of hydra:view.
+     */
+    private static class NonNavigationLinksSerializer extends JsonSerializer<Object> {
+
+        private final JsonSerializer<Object> delegate;
+
+        NonNavigationLinksSerializer(JsonSerializer<Object> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void serialize(Object links, JsonGenerator jgen, SerializerProvider serializerProvider) throws
+                IOException {
+            delegate.serialize(getNonNavigationLinks((List<Link>) links), jgen, serializerProvider);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean isEmpty(SerializerProvider provider, Object links) {
+            return delegate.isEmpty(provider, getNonNavigationLinks((List<Link>) links));
+        }
+
+        @Override
+        public boolean isUnwrappingSerializer() {
+            return delegate.isUnwrappingSerializer();
+        }
+
+        @Override
+        public JsonSerializer<Object> unwrappingSerializer(NameTransformer unwrapper) {
+            return new NonNavigationLinksSerializer(delegate.unwrappingSerializer(unwrapper));
+        }
+    }
+
     protected void serializeContext(Object bean, JsonGenerator jgen,
                                     SerializerProvider serializerProvider, Deque<LdContext> contextStack) throws
             IOException {
@@ -137,38 +297,33 @@ public class PagedResourcesSerializer extends StdSerializer<PagedResources> {
         final Class<?> mixInClass = mixinSource.findMixInClassFor(bean.getClass());
 
         final LdContext parentContext = contextStack.peek();
-        LdContext currentContext = new LdContext(parentContext, ldContextFactory.getVocab(mixinSource, bean,
-                mixInClass), ldContextFactory.getTerms(mixinSource, bean, mixInClass));
+        HydraMetrics metrics = JacksonHydraSerializer.getMetrics(serializerProvider);
+        LdContext beanContext = ldContextFactory.getLdContext(mixinSource, bean, mixInClass, metrics);
+        // unlike nested beans, the collection context repeats all of its terms
+        LdContext currentContext = parentContext == null ? beanContext : parentContext.extend(beanContext);
         contextStack.push(currentContext);
         // check if we need to write a context for the current bean at all
         // If it is in the same vocab: no context
         // If the terms are already defined in the context: no context
-        boolean mustWriteContext;
-        if (parentContext == null || !parentContext.contains(currentContext)) {
-            mustWriteContext = true;
-        } else {
-            mustWriteContext = false;
-        }
+        boolean mustWriteContext = !currentContext.isContainedInParent();
 
         if (mustWriteContext) {
             // begin context
             // default context: schema.org vocab or vocab package annotation
-            jgen.writeObjectFieldStart("@context");
             // do not repeat vocab if already defined in current context
-            if (parentContext == null || parentContext.vocab == null ||
-                    (currentContext.vocab != null && !currentContext.vocab.equals(parentContext.vocab))) {
-                jgen.writeStringField(JsonLdKeywords.AT_VOCAB, currentContext.vocab);
+            boolean writeVocab = parentContext == null || parentContext.vocab == null ||
+                    (currentContext.vocab != null && !currentContext.vocab.equals(parentContext.vocab));
+            long start = metrics.isEnabled() ? CountingOutputStream.getPosition(jgen) : -1;
+            if (contextFragments != null) {
+                contextFragments.writeContext(jgen, writeVocab, currentContext);
+            } else {
+                jgen.writeFieldName(LdContextFragments.AT_CONTEXT);
+                LdContextFragments.writeContextObject(jgen, writeVocab, currentContext.vocab,
+                        currentContext.terms);
             }
-
-            for (Map.Entry<String, Object> termEntry : currentContext.terms.entrySet()) {
-                if (termEntry.getValue() instanceof String) {
-                    jgen.writeStringField(termEntry.getKey(), termEntry.getValue()
-                            .toString());
-                } else {
-                    jgen.writeObjectField(termEntry.getKey(), termEntry.getValue());
-                }
+            if (start >= 0) {
+                metrics.contextWritten(CountingOutputStream.getPosition(jgen) - start);
             }
-            jgen.writeEndObject();
             // end context
         }
     }
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import de.escalon.hypermedia.hydra.serialize.RemoteLdContexts;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Remote contexts which are referenced below the servlet mapping of the current request, as served by {@link
+ * JsonLdContextController}. Falls back to a server-relative uri outside of a request.
+ */
+public class ServletRemoteLdContexts extends RemoteLdContexts {
+
+    /**
+     * Request attribute holding the contexts uri of the current request. Remove it if the servlet mapping changes
+     * within a request, e.g. when forwarding to another servlet.
+     */
+    public static final String CONTEXTS_URI_ATTRIBUTE = ServletRemoteLdContexts.class.getName() + ".CONTEXTS_URI";
+
+    public ServletRemoteLdContexts() {
+        super(JsonLdContextController.CONTEXTS_PATH);
+    }
+
+    /**
+     * Gets the contexts uri below the current servlet mapping. The uri is computed once per request and kept as
+     * request attribute {@link #CONTEXTS_URI_ATTRIBUTE}, since all contexts of a response share it.
+     *
+     * @return contexts uri
+     */
+    @Override
+    protected String getContextsUri() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return super.getContextsUri();
+        }
+        String contextsUri = (String) requestAttributes.getAttribute(CONTEXTS_URI_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (contextsUri == null) {
+            contextsUri = ServletUriComponentsBuilder.fromCurrentServletMapping()
+                    .path(super.getContextsUri())
+                    .build()
+                    .toUriString();
+            requestAttributes.setAttribute(CONTEXTS_URI_ATTRIBUTE, contextsUri, RequestAttributes.SCOPE_REQUEST);
+        }
+        return contextsUri;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Collection view of lazily evaluated content, e.g. a database cursor, which can be iterated only once. The first
+ * item is buffered, so that it can be looked at repeatedly, e.g. to determine the json-ld context of a collection
+ * from its first member, but only one iterator may advance beyond the first item. Since the total number of items
+ * is unknown before iteration, {@link #size()} counts the items iterated so far. Message converters which need the
+ * content as a whole, e.g. siren or uber, hold all members in memory.
+ *
+ * @param <T>
+ *         content type
+ */
+public class StreamingContent<T> extends AbstractCollection<T> implements Closeable {
+
+    private final Iterator<? extends T> content;
+    private final Closeable resource;
+    private boolean firstFetched;
+    private boolean hasFirst;
+    private T first;
+    private Iterator<T> owner;
+    private int count;
+
+    /**
+     * Creates content view of the given iterator.
+     *
+     * @param content
+     *         to iterate, is closed by {@link #close()} if it is {@link Closeable}
+     */
+    public StreamingContent(Iterator<? extends T> content) {
+        this(content, null);
+    }
+
+    /**
+     * Creates content view of the given iterator, which releases the given resource when it is closed, e.g. the
+     * {@code java.util.stream.Stream} the iterator was obtained from.
+     *
+     * @param content
+     *         to iterate, is closed by {@link #close()} if it is {@link Closeable}
+     * @param resource
+     *         to close after the content, may be null
+     */
+    public StreamingContent(Iterator<? extends T> content, Closeable resource) {
+        this.content = content;
+        this.resource = resource;
+    }
+
+    /**
+     * Gets an iterator over the content. Every iterator returns the first item, but only one of them may go on.
+     *
+     * @return iterator
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+
+            private boolean returnedFirst;
+
+            @Override
+            public boolean hasNext() {
+                if (!returnedFirst) {
+                    return fetchFirst();
+                }
+                checkOwner(this);
+                return content.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!returnedFirst) {
+                    if (!fetchFirst()) {
+                        throw new NoSuchElementException();
+                    }
+                    returnedFirst = true;
+                    return first;
+                }
+                checkOwner(this);
+                owner = this;
+                T next = content.next();
+                count++;
+                return next;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private void checkOwner(Iterator<T> iterator) {
+        if (owner != null && owner != iterator) {
+            throw new IllegalStateException("streaming content can be iterated only once");
+        }
+    }
+
+    private boolean fetchFirst() {
+        if (!firstFetched) {
+            firstFetched = true;
+            hasFirst = content.hasNext();
+            if (hasFirst) {
+                first = content.next();
+                count++;
+            }
+        }
+        return hasFirst;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !fetchFirst();
+    }
+
+    /**
+     * Gets the number of items iterated so far, which is the total number of items only after iteration.
+     *
+     * @return number of items taken from the underlying iterator
+     */
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Closes the underlying iterator if it is {@link Closeable}, then the resource given to the constructor.
+     *
+     * @throws IOException
+     *         if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (content instanceof Closeable) {
+                ((Closeable) content).close();
+            }
+        } finally {
+            if (resource != null) {
+                resource.close();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingContent { iterating: " + (owner != null) + " }";
+    }
+}
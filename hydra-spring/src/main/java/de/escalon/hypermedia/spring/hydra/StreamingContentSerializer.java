@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link StreamingContent} as json array, one item at a time. The generator is flushed periodically, so that
+ * written items reach the client and can be garbage collected on the server.
+ */
+@SuppressWarnings("rawtypes")
+public class StreamingContentSerializer extends StdSerializer<StreamingContent> {
+
+    private static final int DEFAULT_FLUSH_INTERVAL = 100;
+
+    private final int flushInterval;
+
+    public StreamingContentSerializer() {
+        this(DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Creates serializer which flushes after the given number of items.
+     *
+     * @param flushInterval
+     *         number of items between flushes
+     */
+    public StreamingContentSerializer(int flushInterval) {
+        super(StreamingContent.class);
+        this.flushInterval = flushInterval;
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, StreamingContent value) {
+        return value == null || value.isEmpty();
+    }
+
+    @Override
+    public void serialize(StreamingContent value, JsonGenerator jgen, SerializerProvider provider)
+            throws IOException {
+        try {
+            jgen.writeStartArray();
+            Class<?> itemClass = null;
+            JsonSerializer<Object> itemSerializer = null;
+            int count = 0;
+            for (Object item : value) {
+                if (item == null) {
+                    provider.defaultSerializeNull(jgen);
+                } else {
+                    if (item.getClass() != itemClass) {
+                        itemClass = item.getClass();
+                        itemSerializer = provider.findValueSerializer(itemClass, null);
+                    }
+                    itemSerializer.serialize(item, jgen, provider);
+                }
+                if (++count % flushInterval == 0) {
+                    jgen.flush();
+                }
+            }
+            jgen.writeEndArray();
+        } finally {
+            value.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Paged resources whose content is evaluated lazily while the response is written, e.g. a large page read from a
+ * database cursor. Like {@link StreamingResources}, the members are written one at a time, the content can be
+ * serialized only once and the iterator and the given resource are closed after serialization.
+ *
+ * @param <T>
+ *         content type
+ */
+public class StreamingPagedResources<T> extends PagedResources<T> {
+
+    private final StreamingContent<T> content;
+
+    /**
+     * Creates streaming paged resources.
+     *
+     * @param content
+     *         iterator over the members of the page
+     * @param resource
+     *         to close after serialization, may be null
+     * @param metadata
+     *         of the page
+     * @param links
+     *         of the collection
+     */
+    public StreamingPagedResources(Iterator<? extends T> content, Closeable resource, PageMetadata metadata,
+                                   Link... links) {
+        super(Collections.<T>emptyList(), metadata, links);
+        this.content = new StreamingContent<T>(content, resource);
+    }
+
+    /**
+     * Creates streaming paged resources.
+     *
+     * @param content
+     *         iterator over the members of the page
+     * @param metadata
+     *         of the page
+     * @param links
+     *         of the collection
+     */
+    public StreamingPagedResources(Iterator<? extends T> content, PageMetadata metadata, Link... links) {
+        this(content, null, metadata, links);
+    }
+
+    /**
+     * Gets the lazily evaluated content.
+     *
+     * @return content which can be iterated once
+     */
+    @Override
+    public Collection<T> getContent() {
+        return content;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return content.iterator();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StreamingPagedResources { content: <streaming>, metadata: %s, links: %s }",
+                getMetadata(), getLinks());
+    }
+}
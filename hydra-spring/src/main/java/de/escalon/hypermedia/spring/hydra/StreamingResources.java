@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resources;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Resources whose content is evaluated lazily while the response is written, for collections which are too large to
+ * be held in memory, e.g. a database cursor. The members are written one at a time and the content can be
+ * serialized only once. If the iterator is {@link Closeable}, it is closed after serialization, as well as the
+ * resource given to the constructor, e.g. a {@code java.util.stream.Stream}:
+ * <pre>
+ * Stream&lt;Event&gt; events = eventRepository.streamAll();
+ * return new StreamingResources&lt;Event&gt;(events.iterator(), events::close, self);
+ * </pre>
+ * Only the json-ld message converter writes the members one at a time, other message converters hold them in memory.
+ *
+ * @param <T>
+ *         content type
+ */
+public class StreamingResources<T> extends Resources<T> {
+
+    private final StreamingContent<T> content;
+
+    /**
+     * Creates streaming resources.
+     *
+     * @param content
+     *         iterator over the members
+     * @param links
+     *         of the collection
+     */
+    public StreamingResources(Iterator<? extends T> content, Link... links) {
+        this(content, null, links);
+    }
+
+    /**
+     * Creates streaming resources which release the given resource after serialization.
+     *
+     * @param content
+     *         iterator over the members
+     * @param resource
+     *         to close after serialization, may be null
+     * @param links
+     *         of the collection
+     */
+    public StreamingResources(Iterator<? extends T> content, Closeable resource, Link... links) {
+        super(Collections.<T>emptyList(), links);
+        this.content = new StreamingContent<T>(content, resource);
+    }
+
+    /**
+     * Creates streaming resources.
+     *
+     * @param content
+     *         iterable over the members, only iterated once
+     * @param links
+     *         of the collection
+     */
+    public StreamingResources(Iterable<? extends T> content, Link... links) {
+        this(content.iterator(), null, links);
+    }
+
+    /**
+     * Gets the lazily evaluated content.
+     *
+     * @return content which can be iterated once
+     */
+    @Override
+    public Collection<T> getContent() {
+        return content;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return content.iterator();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StreamingResources { content: <streaming>, links: %s }", getLinks());
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.escalon.hypermedia.BoundedCache;
+import de.escalon.hypermedia.PropertyUtils;
+import de.escalon.hypermedia.affordance.DataType;
+import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.spring.SpringActionInputParameter;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.Assert;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precompiled <code>hydra:supportedProperty</code> tree of a request body type. Holds everything which can be
+ * determined from the body type alone, i.e. property names, property paths, nested types and input parameter
+ * metadata. The values of a particular request body are overlaid by {@link LinkListSerializer} while writing. The
+ * tree is computed when a body type is rendered for the first time, or at startup by a {@link
+ * HydraAffordanceMetadataPrecompiler}.
+ */
+final class SupportedProperties {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SupportedProperties.class);
+
+    private static final BoundedCache<Class<?>, SupportedProperties> supportedPropertiesByType =
+            new BoundedCache<Class<?>, SupportedProperties>(1024);
+
+    private final int depth;
+    private final List<SupportedProperty> properties;
+
+    private SupportedProperties(int depth, List<SupportedProperty> properties) {
+        this.depth = depth;
+        this.properties = Collections.unmodifiableList(properties);
+    }
+
+    /**
+     * Gets the supported properties of a request body type.
+     *
+     * @param requestBodyType to describe
+     * @return supported properties, shared by all threads
+     * @throws IntrospectionException
+     *         if the bean properties of a type cannot be determined
+     */
+    static SupportedProperties forType(Class<?> requestBodyType) throws IntrospectionException {
+        SupportedProperties supportedProperties = supportedPropertiesByType.get(requestBodyType);
+        if (supportedProperties == null) {
+            supportedProperties = supportedPropertiesByType.cache(requestBodyType, compile(requestBodyType, ""));
+        }
+        return supportedProperties;
+    }
+
+    /**
+     * Gets the supported properties of a request body type if they have been computed already.
+     *
+     * @param requestBodyType
+     *         to look up
+     * @return supported properties or null
+     */
+    static SupportedProperties getCached(Class<?> requestBodyType) {
+        return supportedPropertiesByType.get(requestBodyType);
+    }
+
+    private static SupportedProperties compile(Class<?> valueType, String propertyPath) throws
+            IntrospectionException {
+        int depth = propertyPath.isEmpty() ? 1 : StringUtils.countMatches(propertyPath, ".") + 2;
+
+        Map<String, SpringActionInputParameter> inputParameters = new HashMap<String, SpringActionInputParameter>();
+        Map<String, String> valueNames = new HashMap<String, String>();
+
+        // collect supported properties from ctor
+
+        Constructor[] constructors = valueType.getConstructors();
+        // find default ctor
+        Constructor constructor = PropertyUtils.findDefaultCtor(constructors);
+        // find ctor with JsonCreator ann
+        if (constructor == null) {
+            constructor = PropertyUtils.findJsonCreator(constructors, JsonCreator.class);
+        }
+        if (constructor == null) {
+            // TODO this can be a generic collection, find a way to describe it
+            LOG.warn("can't describe supported properties, no default constructor or JsonCreator found for type " +
+                    valueType.getName());
+            return new SupportedProperties(depth, Collections.<SupportedProperty>emptyList());
+        }
+
+        int parameterCount = constructor.getParameterTypes().length;
+        if (parameterCount > 0) {
+            Annotation[][] annotationsOnParameters = constructor.getParameterAnnotations();
+
+            int paramIndex = 0;
+            for (Annotation[] annotationsOnParameter : annotationsOnParameters) {
+                for (Annotation annotation : annotationsOnParameter) {
+                    if (JsonProperty.class == annotation.annotationType()) {
+                        JsonProperty jsonProperty = (JsonProperty) annotation;
+                        // TODO use required attribute of JsonProperty
+                        String paramName = jsonProperty.value();
+                        inputParameters.put(paramName, new SpringActionInputParameter(
+                                new MethodParameter(constructor, paramIndex), null));
+                        valueNames.put(paramName, paramName);
+                        paramIndex++; // increase for each @JsonProperty
+                    }
+                }
+            }
+            Assert.isTrue(parameterCount == paramIndex,
+                    "not all constructor arguments of @JsonCreator " + constructor.getName() +
+                            " are annotated with @JsonProperty");
+        }
+
+        // collect supported properties from setters
+
+        final PropertyDescriptor[] propertyDescriptors = Introspector.getBeanInfo(valueType)
+                .getPropertyDescriptors();
+        // TODO distinguish which properties should be printed as supported - now just setters
+        for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+            final Method writeMethod = propertyDescriptor.getWriteMethod();
+            if (writeMethod == null) {
+                continue;
+            }
+            // TODO: the property name must be a valid URI - need to check context for terms?
+            String propertyName = getWritableExposedPropertyOrPropertyName(propertyDescriptor);
+            inputParameters.put(propertyName, new SpringActionInputParameter(
+                    new MethodParameter(writeMethod, 0), null));
+            valueNames.put(propertyName, propertyDescriptor.getName());
+        }
+
+        List<SupportedProperty> properties = new ArrayList<SupportedProperty>(inputParameters.size());
+        for (Map.Entry<String, SpringActionInputParameter> entry : inputParameters.entrySet()) {
+            properties.add(new SupportedProperty(entry.getValue(), valueNames.get(entry.getKey()), propertyPath));
+        }
+        return new SupportedProperties(depth, properties);
+    }
+
+    /**
+     * Gets exposed property or parameter name for properties with an appropriate setter (=write) method.
+     *
+     * @param inputParameter for exposure
+     * @return property name
+     */
+    private static String getWritableExposedPropertyOrPropertyName(PropertyDescriptor inputParameter) {
+        final Method writeMethod = inputParameter.getWriteMethod();
+        final Expose expose = writeMethod.getAnnotation(Expose.class);
+        String propertyName;
+        if (expose != null) {
+            propertyName = expose.value();
+        } else {
+            propertyName = inputParameter.getName();
+        }
+        return propertyName;
+    }
+
+    /**
+     * Nesting level of these properties, as reported to metrics.
+     *
+     * @return 1 for the properties of the request body
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    List<SupportedProperty> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Single supported property, either a single value or a nested bean.
+     */
+    static final class SupportedProperty {
+
+        private final SpringActionInputParameter inputParameter;
+        private final String valueName;
+        private final String propertyPath;
+        private final boolean singleValue;
+        private final boolean multipleValues;
+        private final String subClass;
+        private final SupportedProperties nestedProperties;
+
+        SupportedProperty(SpringActionInputParameter inputParameter, String valueName, String parentPath) throws
+                IntrospectionException {
+            this.inputParameter = inputParameter;
+            this.valueName = valueName;
+            String parameterName = inputParameter.getParameterName();
+            this.propertyPath = parentPath.isEmpty() ? parameterName : parentPath + '.' + parameterName;
+            Class<?> parameterType = inputParameter.getParameterType();
+            this.singleValue = DataType.isSingleValueType(parameterType);
+            if (singleValue) {
+                this.multipleValues = false;
+                this.subClass = null;
+                this.nestedProperties = null;
+                return;
+            }
+            Expose expose = AnnotationUtils.getAnnotation(parameterType, Expose.class);
+            String subClass = null;
+            boolean multipleValues = false;
+            if (expose != null) {
+                subClass = expose.value();
+            } else if (List.class.isAssignableFrom(parameterType)) {
+                Type genericParameterType = inputParameter.getGenericParameterType();
+                if (genericParameterType instanceof ParameterizedType) {
+                    ParameterizedType parameterizedType = (ParameterizedType) genericParameterType;
+                    Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
+                    if (actualTypeArguments.length == 1) {
+                        Type actualTypeArgument = actualTypeArguments[0];
+                        if (actualTypeArgument instanceof Class) {
+                            parameterType = (Class<?>) actualTypeArgument;
+                            subClass = parameterType.getSimpleName();
+                        } else if (actualTypeArgument instanceof ParameterizedType) {
+                            ParameterizedType genericItemType = (ParameterizedType) actualTypeArgument;
+                            Type rawType = genericItemType.getRawType();
+                            if (rawType instanceof Class) {
+                                parameterType = (Class<?>) rawType;
+                                subClass = parameterType.getSimpleName();
+                            }
+                        }
+                    }
+                }
+                multipleValues = subClass != null;
+            }
+            if (subClass == null) {
+                subClass = parameterType.getSimpleName();
+            }
+            this.multipleValues = multipleValues;
+            this.subClass = subClass;
+            this.nestedProperties = compile(parameterType, propertyPath);
+        }
+
+        /**
+         * Input parameter without value, use {@link SpringActionInputParameter#withValue(Object)} to overlay the
+         * call value.
+         *
+         * @return input parameter
+         */
+        SpringActionInputParameter getInputParameter() {
+            return inputParameter;
+        }
+
+        String getParameterName() {
+            return inputParameter.getParameterName();
+        }
+
+        /**
+         * Name of the property or field which holds the call value of a single value property.
+         *
+         * @return value name
+         */
+        String getValueName() {
+            return valueName;
+        }
+
+        /**
+         * Dot-separated path from the request body to this property, used for include and exclude rules.
+         *
+         * @return property path
+         */
+        String getPropertyPath() {
+            return propertyPath;
+        }
+
+        boolean isSingleValue() {
+            return singleValue;
+        }
+
+        /**
+         * Determines if a nested bean property is a list of beans.
+         *
+         * @return true for lists
+         */
+        boolean isMultipleValues() {
+            return multipleValues;
+        }
+
+        /**
+         * Class name of a nested bean property, the item class for lists.
+         *
+         * @return class name or null for single values
+         */
+        String getSubClass() {
+            return subClass;
+        }
+
+        /**
+         * Properties of a nested bean property.
+         *
+         * @return nested properties or null for single values
+         */
+        SupportedProperties getNestedProperties() {
+            return nestedProperties;
+        }
+    }
+}
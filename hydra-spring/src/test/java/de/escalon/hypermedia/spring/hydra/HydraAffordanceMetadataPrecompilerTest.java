@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import org.junit.Test;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class HydraAffordanceMetadataPrecompilerTest {
+
+    public static class Comment {
+
+        private String text;
+
+        public String getText() {
+            return text;
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+    }
+
+    @Controller
+    @RequestMapping("/comments")
+    public static class CommentController {
+
+        @RequestMapping(method = RequestMethod.POST)
+        public ResponseEntity<Void> addComment(@RequestBody Comment comment) {
+            return null;
+        }
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class Config {
+
+        @Bean
+        public CommentController commentController() {
+            return new CommentController();
+        }
+
+        @Bean
+        public HydraAffordanceMetadataPrecompiler affordanceMetadataPrecompiler() {
+            return new HydraAffordanceMetadataPrecompiler();
+        }
+    }
+
+    @Test
+    public void testPrecompilesSupportedPropertiesOfRequestBodiesOnRefresh() {
+        assertNull(SupportedProperties.getCached(Comment.class));
+
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(Config.class);
+        try {
+            context.refresh();
+        } finally {
+            context.close();
+        }
+        SupportedProperties supportedProperties = SupportedProperties.getCached(Comment.class);
+        assertEquals(1, supportedProperties.getProperties()
+                .size());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import de.escalon.hypermedia.hydra.serialize.HydraMetrics;
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.sample.test.CreativeWork;
+import de.escalon.hypermedia.spring.sample.test.Event;
+import de.escalon.hypermedia.spring.sample.test.EventStatusType;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HydraMetricsTest {
+
+    private RecordingHydraMetrics metrics;
+    private HydraMessageConverter converter;
+
+    @Before
+    public void setUp() {
+        metrics = new RecordingHydraMetrics();
+        JacksonHydraModule hydraModule = new JacksonHydraModule();
+        hydraModule.setMetrics(metrics);
+        converter = new HydraMessageConverter(hydraModule);
+    }
+
+    @Test
+    public void reportsContextAndPayloadSize() throws Exception {
+        Resource<Event> resource = new Resource<Event>(new Event(1, "Walk off the Earth",
+                new CreativeWork("Gang of Rhythm Tour"), "Wiesbaden", EventStatusType.EVENT_SCHEDULED),
+                new Link("http://example.com/events/1"));
+
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(resource, HypermediaTypes.APPLICATION_JSONLD, outputMessage);
+        MockHttpOutputMessage secondOutputMessage = new MockHttpOutputMessage();
+        converter.write(resource, HypermediaTypes.APPLICATION_JSONLD, secondOutputMessage);
+
+        byte[] body = outputMessage.getBodyAsBytes();
+        assertEquals(2, metrics.payloadSizes.size());
+        assertEquals(Long.valueOf(body.length), metrics.payloadSizes.get(0));
+        assertFalse(metrics.contextSizes.isEmpty());
+        String json = new String(body, "UTF-8");
+        String context = json.substring(json.indexOf("\"@context\""));
+        assertTrue(metrics.contextSizes.get(0) > "\"@context\":{}".length());
+        assertTrue(metrics.contextSizes.get(0) < context.length());
+        assertTrue(metrics.cachedContexts > 0);
+    }
+
+    static class RecordingHydraMetrics implements HydraMetrics {
+
+        final List<Long> contextSizes = new ArrayList<Long>();
+        final List<Long> payloadSizes = new ArrayList<Long>();
+        int cachedContexts;
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public void contextComputed(long nanos, boolean cached) {
+            if (cached) {
+                cachedContexts++;
+            }
+        }
+
+        @Override
+        public void contextWritten(long bytes) {
+            contextSizes.add(bytes);
+        }
+
+        @Override
+        public void payloadWritten(long bytes) {
+            payloadSizes.add(bytes);
+        }
+
+        @Override
+        public void affordanceWritten(long nanos) {
+        }
+
+        @Override
+        public void supportedPropertiesWritten(int depth) {
+        }
+    }
+}
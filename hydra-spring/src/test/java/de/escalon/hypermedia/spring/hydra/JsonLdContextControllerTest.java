@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import com.jayway.jsonpath.JsonPath;
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.sample.test.DummyEventControllerExposed;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.AnnotationConfigWebContextLoader;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+/**
+ * Tests serving of remote contexts.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebAppConfiguration
+@ContextConfiguration(loader = AnnotationConfigWebContextLoader.class)
+public class JsonLdContextControllerTest {
+
+    @Configuration
+    @EnableWebMvc
+    static class WebConfig extends WebMvcConfigurerAdapter {
+
+        private final ServletRemoteLdContexts remoteContexts = new ServletRemoteLdContexts();
+
+        @Bean
+        public DummyEventControllerExposed eventController() {
+            return new DummyEventControllerExposed();
+        }
+
+        @Bean
+        public JsonLdContextController jsonLdContextController() {
+            return new JsonLdContextController(remoteContexts);
+        }
+
+        @Override
+        public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
+            super.configureMessageConverters(converters);
+            JacksonHydraModule hydraModule = new JacksonHydraModule();
+            hydraModule.setRemoteContexts(remoteContexts);
+            converters.add(new HydraMessageConverter(hydraModule));
+        }
+    }
+
+    @Autowired
+    private WebApplicationContext wac;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        this.mockMvc = webAppContextSetup(this.wac).build();
+    }
+
+    @Test
+    public void servesReferencedContext() throws Exception {
+        String json = this.mockMvc.perform(get("/events/1")
+                .accept(HypermediaTypes.APPLICATION_JSONLD))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.@context").value(startsWith("http://localhost/contexts/")))
+                .andExpect(jsonPath("$.@type").value("Event"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String contextUri = JsonPath.read(json, "$.@context");
+        String contextPath = contextUri.substring("http://localhost".length());
+        String eTag = "\"" + contextPath.substring(contextPath.lastIndexOf('/') + 1) + "\"";
+
+        this.mockMvc.perform(get(contextPath))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(HypermediaTypes.APPLICATION_JSONLD))
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andExpect(jsonPath("$.@context.@vocab").value("http://schema.org/"));
+
+        this.mockMvc.perform(get(contextPath).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        this.mockMvc.perform(get("/contexts/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void computesContextsUriOncePerRequest() {
+        ServletRemoteLdContexts remoteContexts = new ServletRemoteLdContexts();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/events/1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            String contextsUri = remoteContexts.getContextsUri();
+
+            assertEquals("http://localhost/contexts/", contextsUri);
+            assertSame(contextsUri, request.getAttribute(ServletRemoteLdContexts.CONTEXTS_URI_ATTRIBUTE));
+            assertSame(contextsUri, remoteContexts.getContextsUri());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
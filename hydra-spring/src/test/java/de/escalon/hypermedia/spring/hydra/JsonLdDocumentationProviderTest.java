@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.hydra.mapping.Term;
+import de.escalon.hypermedia.hydra.mapping.Vocab;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JsonLdDocumentationProviderTest {
+
+    private final JsonLdDocumentationProvider documentationProvider = new JsonLdDocumentationProvider();
+
+    @Vocab("http://example.com/vocab#")
+    @Term(define = "foaf", as = "http://xmlns.com/foaf/0.1/")
+    public static class Person {
+
+        @Expose("foaf:name")
+        public String name;
+
+        public String nick;
+
+        @Expose("https://schema.org/email")
+        public String email;
+
+        @Expose("dc:title")
+        public String title;
+    }
+
+    enum Status {
+        ACTIVE
+    }
+
+    @Term(define = "foaf", as = "http://xmlns.com/foaf/0.1/")
+    public static class Account {
+
+        @Expose("foaf:accountName")
+        public String accountName;
+
+        public Status getStatus() {
+            return Status.ACTIVE;
+        }
+    }
+
+    @Test
+    public void testResolvesDocumentationUrlsRepeatedly() throws Exception {
+        Person person = new Person();
+        for (int i = 0; i < 2; i++) {
+            assertEquals("http://xmlns.com/foaf/0.1/name", documentationProvider.getDocumentationUrl(Person.class
+                    .getField("name"), person));
+            assertEquals("http://example.com/vocab#nick", documentationProvider.getDocumentationUrl(Person.class
+                    .getField("nick"), person));
+            assertEquals("https://schema.org/email", documentationProvider.getDocumentationUrl(Person.class
+                    .getField("email"), person));
+            assertNull(documentationProvider.getDocumentationUrl(Person.class.getField("title"), person));
+            assertEquals("http://example.com/vocab#nick", documentationProvider.getDocumentationUrl("nick", person));
+        }
+    }
+
+    @Test
+    public void testResolvesCurieOfBeanWithInstanceDependentTerms() throws Exception {
+        Account account = new Account();
+        for (int i = 0; i < 2; i++) {
+            assertEquals("http://xmlns.com/foaf/0.1/accountName", documentationProvider.getDocumentationUrl(Account
+                    .class.getField("accountName"), account));
+            assertEquals("http://schema.org/status", documentationProvider.getDocumentationUrl(Account.class
+                    .getMethod("getStatus"), account));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.escalon.hypermedia.spring.sample.test.CreativeWork;
+import de.escalon.hypermedia.spring.sample.test.Event;
+import de.escalon.hypermedia.spring.sample.test.EventStatusType;
+import de.escalon.hypermedia.spring.sample.test.Rating;
+import de.escalon.hypermedia.spring.sample.test.Review;
+import de.escalon.hypermedia.spring.sample.test.ReviewController;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.Resource;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static de.escalon.hypermedia.spring.AffordanceBuilder.linkTo;
+import static de.escalon.hypermedia.spring.AffordanceBuilder.methodOn;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class LinkListSerializerTest {
+
+    private ObjectMapper objectMapper;
+
+    @Before
+    public void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(MockMvcRequestBuilders
+                .get("http://example.com/")
+                .buildRequest(new MockServletContext())));
+        objectMapper = new HydraMessageConverter().getObjectMapper();
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testWritesOperationWithoutRequestBodyValueAsFragment() throws Exception {
+        Resource<Event> resource = createEventResource();
+        resource.add(linkTo(methodOn(ReviewController.class).addReview(1, (Review) null)).withRel("review"));
+
+        String json = objectMapper.writeValueAsString(resource);
+        assertEquals(json, objectMapper.writeValueAsString(resource));
+        assertThat(json, containsString("\"hydra:property\":\"reviewBody\""));
+        assertThat(json, not(containsString("defaultValue")));
+
+        String prettyJson = objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValueAsString(resource);
+        assertEquals(objectMapper.readTree(prettyJson), objectMapper.readTree(json));
+    }
+
+    @Test
+    public void testRendersOperationFragmentWithGeneratorFeatures() throws Exception {
+        Resource<Event> resource = createEventResource();
+        resource.add(linkTo(methodOn(ReviewController.class).addReview(1, (Review) null)).withRel("review"));
+        objectMapper.writeValueAsString(resource);
+
+        ObjectMapper unquotingMapper = new HydraMessageConverter().getObjectMapper();
+        unquotingMapper.configure(JsonGenerator.Feature.QUOTE_FIELD_NAMES, false);
+        String json = unquotingMapper.writeValueAsString(resource);
+        assertThat(json, containsString("hydra:property:\"reviewBody\""));
+        assertThat(objectMapper.writeValueAsString(resource), containsString("\"hydra:property\":\"reviewBody\""));
+    }
+
+    @Test
+    public void testWritesOperationWithRequestBodyValueDynamically() throws Exception {
+        Resource<Event> withoutValue = createEventResource();
+        withoutValue.add(linkTo(methodOn(ReviewController.class).addReview(1, (Review) null)).withRel("review"));
+        objectMapper.writeValueAsString(withoutValue);
+
+        Resource<Event> withValue = createEventResource();
+        withValue.add(linkTo(methodOn(ReviewController.class).addReview(1, new Review("Five peeps, one guitar",
+                new Rating(5)))).withRel("review"));
+        String json = objectMapper.writeValueAsString(withValue);
+        assertThat(json, containsString("\"schema:defaultValue\":\"Five peeps, one guitar\""));
+        assertThat(json, containsString("\"schema:defaultValue\":5"));
+    }
+
+    private static Resource<Event> createEventResource() {
+        return new Resource<Event>(new Event(1, "Walk off the Earth", new CreativeWork("Gang of Rhythm Tour"),
+                "Wiesbaden", EventStatusType.EVENT_SCHEDULED));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonassert.JsonAssert;
+import de.escalon.hypermedia.spring.sample.test.CreativeWork;
+import de.escalon.hypermedia.spring.sample.test.Event;
+import de.escalon.hypermedia.spring.sample.test.EventStatusType;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+
+public class PagedResourcesSerializerTest {
+
+    private ObjectMapper mapper;
+
+    @Before
+    public void setUp() {
+        mapper = new ObjectMapper();
+        mapper.registerModule(new JacksonHydraModule());
+    }
+
+    @Test
+    public void rendersNavigationLinksAsPartialCollectionView() throws Exception {
+        PagedResources<Event> pagedResources = new PagedResources<Event>(Arrays.asList(
+                new Event(1, "Walk off the Earth", new CreativeWork("Gang of Rhythm Tour"), "Wiesbaden",
+                        EventStatusType.EVENT_SCHEDULED)),
+                new PagedResources.PageMetadata(1, 1, 3),
+                new Link("http://example.com/events?page=1"),
+                new Link("http://example.com/events?page=2", Link.REL_NEXT),
+                new Link("http://example.com/events?page=0", Link.REL_PREVIOUS));
+
+        String json = mapper.writeValueAsString(pagedResources);
+
+        JsonAssert.with(json)
+                .assertThat("$.@type", is("hydra:Collection"))
+                .assertThat("$.@id", is("http://example.com/events?page=1"))
+                .assertThat("$.['hydra:member']", hasSize(1))
+                .assertThat("$.['hydra:totalItems']", is(3))
+                .assertNotDefined("$.next")
+                .assertThat("$.['hydra:view'].@type", is("hydra:PartialCollectionView"))
+                .assertThat("$.['hydra:view'].['hydra:next']", is("http://example.com/events?page=2"))
+                .assertThat("$.['hydra:view'].['hydra:previous']", is("http://example.com/events?page=0"));
+
+        assertEquals(json, mapper.writeValueAsString(pagedResources));
+    }
+
+    public static class Views {
+
+        public static class Summary {
+        }
+
+        public static class Details {
+        }
+    }
+
+    public static class EventPage extends PagedResources<Event> {
+
+        public EventPage(Collection<Event> content, PageMetadata metadata, Link... links) {
+            super(content, metadata, links);
+        }
+
+        @JsonView(Views.Details.class)
+        public String getDescription() {
+            return "All events";
+        }
+
+        @JsonAnyGetter
+        public Map<String, Object> getExtensions() {
+            return Collections.<String, Object>singletonMap("source", "test");
+        }
+    }
+
+    @Test
+    public void rendersViewsAndAnyGettersOfPagedResources() throws Exception {
+        EventPage eventPage = new EventPage(Collections.<Event>emptyList(), new PagedResources.PageMetadata(1, 0, 3),
+                new Link("http://example.com/events?page=0"),
+                new Link("http://example.com/events?page=1", Link.REL_NEXT));
+
+        String summary = mapper.writerWithView(Views.Summary.class)
+                .writeValueAsString(eventPage);
+        String details = mapper.writerWithView(Views.Details.class)
+                .writeValueAsString(eventPage);
+
+        JsonAssert.with(summary)
+                .assertThat("$.@id", is("http://example.com/events?page=0"))
+                .assertThat("$.source", is("test"))
+                .assertNotDefined("$.description")
+                .assertThat("$.['hydra:view'].['hydra:next']", is("http://example.com/events?page=1"));
+        JsonAssert.with(details)
+                .assertThat("$.description", is("All events"))
+                .assertThat("$.source", is("test"));
+    }
+}
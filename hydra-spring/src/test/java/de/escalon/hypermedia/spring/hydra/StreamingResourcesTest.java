@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.escalon.hypermedia.spring.sample.test.CreativeWork;
+import de.escalon.hypermedia.spring.sample.test.Event;
+import de.escalon.hypermedia.spring.sample.test.EventStatusType;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.Resources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class StreamingResourcesTest {
+
+    private ObjectMapper mapper;
+
+    @Before
+    public void setUp() {
+        mapper = new ObjectMapper();
+        mapper.registerModule(new JacksonHydraModule());
+    }
+
+    static class ClosingIterator<T> implements Iterator<T>, Closeable {
+
+        private final Iterator<T> delegate;
+        private int nextCalls;
+        boolean closed;
+
+        ClosingIterator(Iterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            nextCalls++;
+            return delegate.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    static class CloseableResource implements Closeable {
+
+        boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * Records how many items the iterator has produced whenever the generator flushes.
+     */
+    static class FlushRecordingStream extends ByteArrayOutputStream {
+
+        private final ClosingIterator<?> iterator;
+        final List<Integer> nextCallsOnFlush = new ArrayList<Integer>();
+
+        FlushRecordingStream(ClosingIterator<?> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void flush() {
+            nextCallsOnFlush.add(iterator.nextCalls);
+        }
+    }
+
+    public static class FailingBean {
+
+        public String getName() {
+            throw new IllegalStateException("cannot read name");
+        }
+    }
+
+    private static List<Event> createEvents(int count) {
+        List<Event> events = new ArrayList<Event>();
+        for (int i = 0; i < count; i++) {
+            events.add(new Event(i, "Walk off the Earth", new CreativeWork("Gang of Rhythm Tour"), "Wiesbaden",
+                    EventStatusType.EVENT_SCHEDULED));
+        }
+        return events;
+    }
+
+    @Test
+    public void writesStreamingContentLikeResources() throws Exception {
+        List<Event> events = createEvents(250);
+        Link self = new Link("http://example.com/events");
+        ClosingIterator<Event> iterator = new ClosingIterator<Event>(events.iterator());
+
+        String streamed = mapper.writeValueAsString(new StreamingResources<Event>(iterator, self));
+
+        assertEquals(mapper.writeValueAsString(new Resources<Event>(events, self)), streamed);
+        assertEquals(events.size(), iterator.nextCalls);
+        assertTrue(iterator.closed);
+    }
+
+    @Test
+    public void writesEmptyStreamingContentLikeResources() throws Exception {
+        Link self = new Link("http://example.com/events");
+
+        String streamed = mapper.writeValueAsString(new StreamingResources<Event>(new ArrayList<Event>(), self));
+
+        assertEquals(mapper.writeValueAsString(new Resources<Event>(new ArrayList<Event>(), self)), streamed);
+    }
+
+    @Test
+    public void consumesItemsLazilyAndFlushesPeriodically() throws Exception {
+        ClosingIterator<Event> iterator = new ClosingIterator<Event>(createEvents(250).iterator());
+        FlushRecordingStream out = new FlushRecordingStream(iterator);
+
+        mapper.writeValue(out, new StreamingResources<Event>(iterator, new Link("http://example.com/events")));
+
+        assertTrue(out.nextCallsOnFlush.containsAll(Arrays.asList(100, 200)));
+        assertEquals(250, iterator.nextCalls);
+    }
+
+    @Test
+    public void closesContentWhenSerializationFails() throws Exception {
+        ClosingIterator<FailingBean> iterator = new ClosingIterator<FailingBean>(
+                Arrays.asList(new FailingBean()).iterator());
+        CloseableResource resource = new CloseableResource();
+
+        try {
+            mapper.writeValueAsString(new StreamingResources<FailingBean>(iterator, resource));
+            fail("serialization should fail");
+        } catch (JsonMappingException expected) {
+            assertTrue(iterator.closed);
+            assertTrue(resource.closed);
+        }
+    }
+
+    @Test
+    public void failsToSerializeTwice() throws Exception {
+        StreamingResources<Event> resources = new StreamingResources<Event>(createEvents(3).iterator());
+        mapper.writeValueAsString(resources);
+
+        try {
+            mapper.writeValueAsString(resources);
+            fail("second serialization should fail");
+        } catch (JsonMappingException expected) {
+            assertTrue(expected.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void countsIteratedItems() throws Exception {
+        StreamingResources<Event> resources = new StreamingResources<Event>(createEvents(3).iterator());
+        assertEquals(0, resources.getContent().size());
+
+        mapper.writeValueAsString(resources);
+
+        assertEquals(3, resources.getContent().size());
+    }
+
+    @Test
+    public void describesResourcesWithoutConsumingContent() throws Exception {
+        ClosingIterator<Event> iterator = new ClosingIterator<Event>(createEvents(3).iterator());
+        StreamingResources<Event> resources = new StreamingResources<Event>(iterator,
+                new Link("http://example.com/events"));
+
+        assertTrue(resources.toString().contains("<streaming>"));
+        assertEquals(0, iterator.nextCalls);
+        assertFalse(resources.getContent().isEmpty());
+    }
+
+    @Test
+    public void writesStreamingPagedContentLikePagedResources() throws Exception {
+        List<Event> events = createEvents(5);
+        PagedResources.PageMetadata metadata = new PagedResources.PageMetadata(5, 1, 20);
+        Link self = new Link("http://example.com/events?page=1");
+        Link next = new Link("http://example.com/events?page=2", Link.REL_NEXT);
+        CloseableResource resource = new CloseableResource();
+
+        String streamed = mapper.writeValueAsString(
+                new StreamingPagedResources<Event>(events.iterator(), resource, metadata, self, next));
+
+        assertEquals(mapper.writeValueAsString(new PagedResources<Event>(events, metadata, self, next)), streamed);
+        assertTrue(resource.closed);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.escalon.hypermedia.hydra.mapping.Expose;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SupportedPropertiesTest {
+
+    public static class Rating {
+
+        private final int ratingValue;
+
+        @JsonCreator
+        public Rating(@JsonProperty("ratingValue") int ratingValue) {
+            this.ratingValue = ratingValue;
+        }
+
+        public int getRatingValue() {
+            return ratingValue;
+        }
+    }
+
+    public static class Review {
+
+        private String reviewBody;
+        private List<Rating> ratings;
+
+        public String getReviewBody() {
+            return reviewBody;
+        }
+
+        @Expose("http://schema.org/reviewBody")
+        public void setReviewBody(String reviewBody) {
+            this.reviewBody = reviewBody;
+        }
+
+        public List<Rating> getRatings() {
+            return ratings;
+        }
+
+        public void setRatings(List<Rating> ratings) {
+            this.ratings = ratings;
+        }
+    }
+
+    @Test
+    public void testSharesSupportedPropertiesPerType() throws Exception {
+        assertSame(SupportedProperties.forType(Review.class), SupportedProperties.forType(Review.class));
+    }
+
+    @Test
+    public void testCompilesNestedProperties() throws Exception {
+        SupportedProperties supportedProperties = SupportedProperties.forType(Review.class);
+        assertEquals(1, supportedProperties.getDepth());
+        Map<String, SupportedProperties.SupportedProperty> properties = byPath(supportedProperties);
+        assertEquals(2, properties.size());
+
+        SupportedProperties.SupportedProperty reviewBody = properties.get("reviewBody");
+        assertTrue(reviewBody.isSingleValue());
+        assertEquals("reviewBody", reviewBody.getValueName());
+        assertNull(reviewBody.getInputParameter()
+                .getValue());
+
+        SupportedProperties.SupportedProperty ratings = properties.get("ratings");
+        assertFalse(ratings.isSingleValue());
+        assertTrue(ratings.isMultipleValues());
+        assertEquals("Rating", ratings.getSubClass());
+
+        SupportedProperties nestedProperties = ratings.getNestedProperties();
+        assertEquals(2, nestedProperties.getDepth());
+        assertEquals("ratings.ratingValue", nestedProperties.getProperties()
+                .get(0)
+                .getPropertyPath());
+    }
+
+    private static Map<String, SupportedProperties.SupportedProperty> byPath(SupportedProperties
+                                                                                    supportedProperties) {
+        Map<String, SupportedProperties.SupportedProperty> ret =
+                new HashMap<String, SupportedProperties.SupportedProperty>();
+        for (SupportedProperties.SupportedProperty property : supportedProperties.getProperties()) {
+            ret.put(property.getPropertyPath(), property);
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.action;
+
+/**
+ * Provides the {@link Options} implementation designated by {@link Select#options()}. Allows options to be shared
+ * instances, e.g. beans holding a connection pool, rather than being instantiated for every call.
+ */
+public interface OptionsResolver {
+
+    /**
+     * Gets options of the given class.
+     *
+     * @param optionsClass
+     *         as defined by {@link Select#options()}
+     * @return options, must be thread-safe unless a new instance is returned for every call
+     * @throws IllegalStateException
+     *         if the options cannot be provided
+     */
+    Options getOptions(Class<? extends Options> optionsClass);
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.action;
+
+/**
+ * Instantiates options by their public default constructor on every call.
+ */
+public class ReflectiveOptionsResolver implements OptionsResolver {
+
+    @Override
+    public Options getOptions(Class<? extends Options> optionsClass) {
+        try {
+            return optionsClass.newInstance();
+        } catch (InstantiationException e) {
+            throw new IllegalStateException("cannot instantiate options " + optionsClass.getName(), e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("cannot instantiate options " + optionsClass.getName(), e);
+        }
+    }
+}
@@ -75,6 +75,7 @@ public class Affordance extends Link {
     private List<ActionDescriptor> actionDescriptors = new ArrayList<ActionDescriptor>();
     private MultiValueMap<String, String> linkParams = new LinkedMultiValueMap<String, String>();
     private PartialUriTemplate partialUriTemplate;
+    private PartialUriTemplateComponents uriTemplateComponents;
     private Cardinality cardinality = Cardinality.SINGLE;
     private TypedResource collectionHolder;
 
@@ -141,7 +142,12 @@ public class Affordance extends Link {
 
     private Affordance(String uriTemplate, MultiValueMap<String, String> linkParams,
                        List<ActionDescriptor> actionDescriptors) {
-        this(new PartialUriTemplate(uriTemplate), actionDescriptors); // no rels to pass
+        this(new PartialUriTemplate(uriTemplate), linkParams, actionDescriptors);
+    }
+
+    private Affordance(PartialUriTemplate uriTemplate, MultiValueMap<String, String> linkParams,
+                       List<ActionDescriptor> actionDescriptors) {
+        this(uriTemplate, actionDescriptors); // no rels to pass
         this.linkParams = linkParams; // takes care of rels
     }
 
@@ -202,7 +208,7 @@ public class Affordance extends Link {
 
     @JsonIgnore
     public boolean isBaseUriTemplated() {
-        return partialUriTemplate.asComponents()
+        return getUriTemplateComponents()
                 .isBaseUriTemplated();
     }
 
@@ -408,7 +414,7 @@ public class Affordance extends Link {
             }
         }
 
-        String linkHeader = "<" + partialUriTemplate.asComponents()
+        String linkHeader = "<" + getUriTemplateComponents()
                 .toString() + ">; ";
 
         return result.insert(0, linkHeader)
@@ -456,7 +462,7 @@ public class Affordance extends Link {
      */
     @Override
     public Affordance expand(Object... arguments) {
-        UriTemplate template = new UriTemplate(partialUriTemplate.asComponents()
+        UriTemplate template = new UriTemplate(getUriTemplateComponents()
                 .toString());
         String expanded = template.expand(arguments)
                 .toASCIIString();
@@ -481,7 +487,10 @@ public class Affordance extends Link {
      */
     @JsonIgnore
     public PartialUriTemplateComponents getUriTemplateComponents() {
-        return partialUriTemplate.asComponents();
+        if (uriTemplateComponents == null) {
+            uriTemplateComponents = partialUriTemplate.asComponents();
+        }
+        return uriTemplateComponents;
     }
 
     /**
@@ -493,7 +502,7 @@ public class Affordance extends Link {
      */
     @Override
     public Affordance expand(Map<String, ? extends Object> arguments) {
-        UriTemplate template = new UriTemplate(partialUriTemplate.asComponents()
+        UriTemplate template = new UriTemplate(getUriTemplateComponents()
                 .toString());
         String expanded = template.expand(arguments)
                 .toASCIIString();
@@ -509,8 +518,8 @@ public class Affordance extends Link {
      * @return partially expanded affordance
      */
     public Affordance expandPartially(Object... arguments) {
-        return new Affordance(partialUriTemplate.expand(arguments)
-                .toString(), linkParams, actionDescriptors);
+        return new Affordance(PartialUriTemplate.fromComponents(partialUriTemplate.expand(arguments)),
+                linkParams, actionDescriptors);
     }
 
     /**
@@ -522,8 +531,8 @@ public class Affordance extends Link {
      * @return partially expanded affordance
      */
     public Affordance expandPartially(Map<String, ? extends Object> arguments) {
-        return new Affordance(partialUriTemplate.expand((Map<String, Object>) arguments)
-                .toString(), linkParams, actionDescriptors);
+        return new Affordance(PartialUriTemplate.fromComponents(partialUriTemplate.expand((Map<String, Object>)
+                arguments)), linkParams, actionDescriptors);
     }
 
 
@@ -13,34 +13,48 @@
 
 package de.escalon.hypermedia.affordance;
 
+import de.escalon.hypermedia.BoundedCache;
+import de.escalon.hypermedia.affordance.UriEncoder.Component;
 import de.escalon.hypermedia.spring.AffordanceBuilder;
 import org.springframework.hateoas.TemplateVariable;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * URI template with the ability to be partially expanded, no matter if its variables are required or not. Unsatisfied
  * variables are kept as variables. Other implementations either remove all unsatisfied variables or fail when required
  * variables are unsatisfied. This behavior is required due to the way an Affordance is created by {@link
  * AffordanceBuilder}, see package info for an overview of affordance creation.
+ * <p>
+ * A template is parsed once when it is created and is immutable afterwards, so it can be shared. Use {@link
+ * #intern(String)} for template strings which are used over and over again.
+ * </p>
  *
  * @author Dietrich Schulten
  * @see de.escalon.hypermedia.spring
  */
 public class PartialUriTemplate {
 
-    private static final Pattern VARIABLE_REGEX = Pattern.compile("\\{([\\?\\&#/]?)([\\w\\,\\.]+)(:??.*?)\\}");
+    private static final BoundedCache<String, PartialUriTemplate> internedTemplates =
+            new BoundedCache<String, PartialUriTemplate>(2048);
 
-    private final List<String> urlComponents = new ArrayList<String>();
+    private static final TemplateVariable[] NO_VARIABLES = new TemplateVariable[0];
 
-    private final List<List<Integer>> variableIndices = new ArrayList<List<Integer>>();
-    private List<TemplateVariable> variables = new ArrayList<TemplateVariable>();
-    private List<String> variableNames = new ArrayList<String>();
+    private final int templateLength;
+
+    private final String[] urlComponents;
+
+    /**
+     * Variables per url component, empty for literal components.
+     */
+    private final TemplateVariable[][] variablesInComponents;
+    /**
+     * String form of each variable per url component, used to retain unsatisfied variables.
+     */
+    private final String[][] variableExpressions;
+    private final List<String> variableNames;
 
     /**
      * Creates a new {@link PartialUriTemplate} using the given template string.
@@ -49,61 +63,212 @@ public class PartialUriTemplate {
      *         must not be {@literal null} or empty.
      */
     public PartialUriTemplate(String template) {
+        this(parse(template));
+    }
+
+    private PartialUriTemplate(TemplateParts parts) {
+        this.templateLength = parts.length;
+        this.urlComponents = parts.components.toArray(new String[parts.components.size()]);
+        this.variablesInComponents = parts.componentVariables.toArray(
+                new TemplateVariable[parts.componentVariables.size()][]);
+        this.variableExpressions = new String[variablesInComponents.length][];
+        for (int i = 0; i < variablesInComponents.length; i++) {
+            TemplateVariable[] variablesInPart = variablesInComponents[i];
+            variableExpressions[i] = new String[variablesInPart.length];
+            for (int j = 0; j < variablesInPart.length; j++) {
+                variableExpressions[i][j] = variablesInPart[j].toString();
+            }
+        }
+        this.variableNames = Collections.unmodifiableList(parts.names);
+    }
+
+    private static TemplateParts parse(String template) {
         Assert.hasText(template, "Template must not be null or empty!");
 
-        Matcher matcher = VARIABLE_REGEX.matcher(template);
-        // first group is the variable start without leading {: "", "/", "?", "#",
-        // second group is the comma-separated name list without the trailing } of the variable
+        TemplateParts parts = new TemplateParts(template.length());
+        final int length = template.length();
         int endOfPart = 0;
-        while (matcher.find()) {
-
-            // 0 is the current match, i.e. the entire variable expression
-            int startOfPart = matcher.start(0);
-            // add part before current match
-            if (endOfPart < startOfPart) {
-                final String partWithoutVariables = template.substring(endOfPart, startOfPart);
-                final StringTokenizer stringTokenizer = new StringTokenizer(partWithoutVariables, "?", true);
-                boolean inQuery = false;
-                while (stringTokenizer.hasMoreTokens()) {
-                    final String token = stringTokenizer.nextToken();
-                    if ("?".equals(token)) {
-                        inQuery = true;
-                    } else {
-                        if (!inQuery) {
-                            urlComponents.add(token);
-                        } else {
-                            urlComponents.add("?" + token);
-                        }
-                        variableIndices.add(Collections.<Integer>emptyList());
+        int startOfPart = template.indexOf('{');
+        while (startOfPart >= 0) {
+            // a variable expression is {, an optional operator, a name list and anything up to the closing }
+            int pos = startOfPart + 1;
+            final char operator = pos < length && isOperator(template.charAt(pos)) ? template.charAt(pos++) : 0;
+            final int startOfNames = pos;
+            while (pos < length && isNameChar(template.charAt(pos))) {
+                pos++;
+            }
+            final int endOfNames = pos;
+            int endOfVariable = -1;
+            if (endOfNames > startOfNames) {
+                for (; pos < length; pos++) {
+                    final char c = template.charAt(pos);
+                    if (c == '}') {
+                        endOfVariable = pos;
+                        break;
+                    } else if (isLineTerminator(c)) {
+                        break;
                     }
                 }
             }
-            endOfPart = matcher.end(0);
-
-            // add current match as part
-            final String variablePart = template.substring(startOfPart, endOfPart);
-            urlComponents.add(variablePart);
-
-            // collect variablesInPart and track for each part which variables it contains
-            // group(1) is the variable head without the leading {
-            TemplateVariable.VariableType type = TemplateVariable.VariableType.from(matcher.group(1));
-            // group(2) are the variable names
-            String[] names = matcher.group(2)
-                    .split(",");
-            List<Integer> variablesInPart = new ArrayList<Integer>();
-            for (String name : names) {
-                TemplateVariable variable = new TemplateVariable(name, type);
-                variablesInPart.add(variables.size());
-                variables.add(variable);
-                variableNames.add(name);
+            if (endOfVariable < 0) {
+                // not a variable expression, treat as literal
+                startOfPart = template.indexOf('{', startOfPart + 1);
+                continue;
             }
-            variableIndices.add(variablesInPart);
+
+            // add part before current variable
+            if (endOfPart < startOfPart) {
+                addLiteralComponents(template, endOfPart, startOfPart, parts);
+            }
+            endOfPart = endOfVariable + 1;
+
+            // add current variable as part and track which variables it contains
+            parts.addVariables(template.substring(startOfPart, endOfPart), operator,
+                    splitNames(template, startOfNames, endOfNames));
+
+            startOfPart = template.indexOf('{', endOfPart);
         }
         // finish off remaining part
-        if (endOfPart < template.length()) {
-            urlComponents.add(template.substring(endOfPart));
-            variableIndices.add(Collections.<Integer>emptyList());
+        if (endOfPart < length) {
+            parts.addLiteral(template.substring(endOfPart));
+        }
+        return parts;
+    }
+
+    /**
+     * Creates a template from the components of another template, e.g. after expansion. The result is the same as
+     * parsing the string form of the components, but common components are taken over without parsing: components
+     * without variables and components which only have unexpanded query variables.
+     *
+     * @param components
+     *         of a template
+     * @return template
+     */
+    public static PartialUriTemplate fromComponents(PartialUriTemplateComponents components) {
+        final String baseUri = components.getBaseUri();
+        final String queryHead = components.getQueryHead();
+        final String queryTail = components.getQueryTail();
+        final String fragmentIdentifier = components.getFragmentIdentifier();
+        if (baseUri.indexOf('{') >= 0 || queryHead.indexOf('{') >= 0 || fragmentIdentifier.indexOf('{') >= 0) {
+            return new PartialUriTemplate(components.toString());
+        }
+        if (queryTail.length() == 0) {
+            // no variables at all, the template is a single literal
+            String template = baseUri + queryHead + fragmentIdentifier;
+            if (!StringUtils.hasText(template)) {
+                return new PartialUriTemplate(template);
+            }
+            TemplateParts parts = new TemplateParts(template.length());
+            parts.addLiteral(template);
+            return new PartialUriTemplate(parts);
+        }
+        // base uri and query head must tokenize exactly as if they were parsed
+        boolean simpleQueryHead = queryHead.length() == 0 ||
+                (queryHead.length() > 1 && queryHead.charAt(0) == '?' && queryHead.indexOf('?', 1) < 0);
+        boolean simpleFragment = fragmentIdentifier.length() == 0 || fragmentIdentifier.charAt(0) == '#';
+        if (baseUri.length() == 0 || baseUri.indexOf('?') >= 0 || !simpleQueryHead || !simpleFragment ||
+                !isNameList(queryTail)) {
+            return new PartialUriTemplate(components.toString());
+        }
+        final char operator = queryHead.length() == 0 ? '?' : '&';
+        final String variableExpression = "{" + operator + queryTail + "}";
+        TemplateParts parts = new TemplateParts(baseUri.length() + queryHead.length() + variableExpression.length()
+                + fragmentIdentifier.length());
+        parts.addLiteral(baseUri);
+        if (queryHead.length() > 0) {
+            parts.addLiteral(queryHead);
+        }
+        parts.addVariables(variableExpression, operator, splitNames(queryTail, 0, queryTail.length()));
+        if (fragmentIdentifier.length() > 0) {
+            parts.addLiteral(fragmentIdentifier);
+        }
+        return new PartialUriTemplate(parts);
+    }
+
+    private static boolean isNameList(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (!isNameChar(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets a shared template for the given template string. The template is parsed only once as long as it remains in
+     * the cache.
+     *
+     * @param template
+     *         must not be {@literal null} or empty.
+     * @return shared template
+     */
+    public static PartialUriTemplate intern(String template) {
+        PartialUriTemplate partialUriTemplate = internedTemplates.get(template);
+        if (partialUriTemplate == null) {
+            partialUriTemplate = internedTemplates.cache(template, new PartialUriTemplate(template));
         }
+        return partialUriTemplate;
+    }
+
+    private static boolean isOperator(char c) {
+        return c == '?' || c == '&' || c == '#' || c == '/';
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == ','
+                || c == '.';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Adds literal components, splitting at question marks. The question mark is kept as prefix of the components
+     * following it.
+     */
+    private static void addLiteralComponents(String template, int start, int end, TemplateParts parts) {
+        boolean inQuery = false;
+        int pos = start;
+        while (pos < end) {
+            if (template.charAt(pos) == '?') {
+                inQuery = true;
+                pos++;
+            } else {
+                int endOfToken = template.indexOf('?', pos);
+                if (endOfToken < 0 || endOfToken > end) {
+                    endOfToken = end;
+                }
+                final String token = template.substring(pos, endOfToken);
+                parts.addLiteral(inQuery ? "?" + token : token);
+                pos = endOfToken;
+            }
+        }
+    }
+
+    /**
+     * Splits a comma-separated name list, dropping trailing empty names.
+     */
+    private static List<String> splitNames(String template, int start, int end) {
+        List<String> names = new ArrayList<String>(4);
+        int pos = start;
+        while (true) {
+            int comma = template.indexOf(',', pos);
+            if (comma < 0 || comma > end) {
+                comma = end;
+            }
+            names.add(template.substring(pos, comma));
+            if (comma == end) {
+                break;
+            }
+            pos = comma + 1;
+        }
+        int size = names.size();
+        while (size > 0 && names.get(size - 1)
+                .isEmpty()) {
+            names.remove(--size);
+        }
+        return names;
     }
 
     public List<String> getVariableNames() {
@@ -167,24 +332,25 @@ public class PartialUriTemplate {
             requiredArgs) {
         Assert.notNull(parameters, "Parameters must not be null!");
 
-        final StringBuilder baseUrl = new StringBuilder(urlComponents.get(0));
-        final StringBuilder queryHead = new StringBuilder();
-        final StringBuilder queryTail = new StringBuilder();
-        final StringBuilder fragmentIdentifier = new StringBuilder();
-        for (int i = 1; i < urlComponents.size(); i++) {
-            final String part = urlComponents.get(i);
-            final List<Integer> variablesInPart = variableIndices.get(i);
-            if (variablesInPart.isEmpty()) {
+        // query and fragment builders are only created if needed
+        final StringBuilder baseUrl = new StringBuilder(templateLength + 16).append(urlComponents[0]);
+        StringBuilder queryHead = null;
+        StringBuilder queryTail = null;
+        StringBuilder fragmentIdentifier = null;
+        for (int i = 1; i < urlComponents.length; i++) {
+            final String part = urlComponents[i];
+            final TemplateVariable[] variablesInPart = variablesInComponents[i];
+            if (variablesInPart.length == 0) {
                 if (part.startsWith("?") || part.startsWith("&")) {
-                    queryHead.append(part);
+                    queryHead = append(queryHead, part);
                 } else if (part.startsWith("#")) {
-                    fragmentIdentifier.append(part);
+                    fragmentIdentifier = append(fragmentIdentifier, part);
                 } else {
                     baseUrl.append(part);
                 }
             } else {
-                for (Integer variableInPart : variablesInPart) {
-                    final TemplateVariable variable = variables.get(variableInPart);
+                for (int j = 0; j < variablesInPart.length; j++) {
+                    final TemplateVariable variable = variablesInPart[j];
                     final Object value = parameters.get(variable.getName());
                     if (value == null) {
                         switch (variable.getType()) {
@@ -192,53 +358,55 @@ public class PartialUriTemplate {
                             case REQUEST_PARAM_CONTINUED:
                                 if (requiredArgs.isEmpty() || requiredArgs.contains(variable.getName())) {
                                     // query vars without value always go last (query tail)
-                                    if (queryTail.length() > 0) {
+                                    if (queryTail == null) {
+                                        queryTail = new StringBuilder();
+                                    } else if (queryTail.length() > 0) {
                                         queryTail.append(',');
                                     }
                                     queryTail.append(variable.getName());
                                 }
                                 break;
                             case FRAGMENT:
-                                fragmentIdentifier.append(variable.toString());
+                                fragmentIdentifier = append(fragmentIdentifier, variableExpressions[i][j]);
                                 break;
                             case PATH_VARIABLE:
-                                if (queryHead.length() != 0) {
+                                if (queryHead != null && queryHead.length() != 0) {
                                     // level 1 variable in query
-                                    queryHead.append(variable.toString());
+                                    queryHead.append(variableExpressions[i][j]);
                                 } else {
-                                    baseUrl.append(variable.toString());
+                                    baseUrl.append(variableExpressions[i][j]);
                                 }
                                 break;
                             case SEGMENT:
-                                baseUrl.append(variable.toString());
+                                baseUrl.append(variableExpressions[i][j]);
                         }
                     } else {
                         switch (variable.getType()) {
                             case REQUEST_PARAM:
                             case REQUEST_PARAM_CONTINUED:
-                                if (queryHead.length() == 0) {
-                                    queryHead.append('?');
+                                if (queryHead == null || queryHead.length() == 0) {
+                                    queryHead = append(queryHead, "?");
                                 } else {
                                     queryHead.append('&');
                                 }
                                 queryHead.append(variable.getName())
-                                        .append('=')
-                                        .append(urlEncode(value.toString()));
+                                        .append('=');
+                                UriEncoder.appendEncoded(queryHead, value.toString(), Component.QUERY_VALUE);
                                 break;
                             case SEGMENT:
                                 baseUrl.append('/');
                                 // fall through
                             case PATH_VARIABLE:
-                                if (queryHead.length() != 0) {
+                                if (queryHead != null && queryHead.length() != 0) {
                                     // level 1 variable in query
-                                    queryHead.append(urlEncode(value.toString()));
+                                    UriEncoder.appendEncoded(queryHead, value.toString(), Component.QUERY_VALUE);
                                 } else {
-                                    baseUrl.append(urlEncode(value.toString()));
+                                    UriEncoder.appendEncoded(baseUrl, value.toString(), Component.PATH_SEGMENT);
                                 }
                                 break;
                             case FRAGMENT:
-                                fragmentIdentifier.append('#');
-                                fragmentIdentifier.append(urlEncode(value.toString()));
+                                fragmentIdentifier = append(fragmentIdentifier, "#");
+                                UriEncoder.appendEncoded(fragmentIdentifier, value.toString(), Component.FRAGMENT);
                                 break;
                         }
                     }
@@ -246,16 +414,16 @@ public class PartialUriTemplate {
             }
         }
 
-        return new PartialUriTemplateComponents(baseUrl.toString(), queryHead.toString(), queryTail.toString(),
-                fragmentIdentifier.toString(), variableNames);
+        return new PartialUriTemplateComponents(baseUrl.toString(), toString(queryHead), toString(queryTail),
+                toString(fragmentIdentifier), variableNames);
     }
 
-    private String urlEncode(String s) {
-        try {
-            return URLEncoder.encode(s, "UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            throw new IllegalStateException("failed to urlEncode " + s, e);
-        }
+    private static StringBuilder append(StringBuilder sb, String s) {
+        return sb == null ? new StringBuilder(s) : sb.append(s);
+    }
+
+    private static String toString(StringBuilder sb) {
+        return sb == null ? "" : sb.toString();
     }
 
     /**
@@ -280,4 +448,36 @@ public class PartialUriTemplate {
         }
         return ret;
     }
+
+    /**
+     * Mutable parts of a template while it is being created.
+     */
+    private static final class TemplateParts {
+        final int length;
+        final List<String> components = new ArrayList<String>();
+        final List<TemplateVariable[]> componentVariables = new ArrayList<TemplateVariable[]>();
+        final List<String> names = new ArrayList<String>();
+
+        TemplateParts(int length) {
+            this.length = length;
+        }
+
+        void addLiteral(String component) {
+            components.add(component);
+            componentVariables.add(NO_VARIABLES);
+        }
+
+        void addVariables(String component, char operator, List<String> namesInPart) {
+            components.add(component);
+            TemplateVariable.VariableType type = TemplateVariable.VariableType.from(operator == 0 ?
+                    "" : String.valueOf(operator));
+            TemplateVariable[] variablesInPart = new TemplateVariable[namesInPart.size()];
+            for (int i = 0; i < variablesInPart.length; i++) {
+                String name = namesInPart.get(i);
+                variablesInPart[i] = new TemplateVariable(name, type);
+                names.add(name);
+            }
+            componentVariables.add(variablesInPart);
+        }
+    }
 }
@@ -23,11 +23,12 @@ import java.util.List;
  */
 public class PartialUriTemplateComponents {
 
-    private String baseUri;
-    private String queryHead;
-    private String queryTail;
-    private String fragmentIdentifier;
-    private List<String> variableNames;
+    private final String baseUri;
+    private final String queryHead;
+    private final String queryTail;
+    private final String fragmentIdentifier;
+    private final List<String> variableNames;
+    private String uri;
 
     /**
      * Represents components of a Uri Template with variables.
@@ -62,7 +63,15 @@ public class PartialUriTemplateComponents {
     }
 
     public boolean isBaseUriTemplated() {
-        return baseUri.matches(".*\\{.+\\}.*");
+        // same as matching .*\{.+\}.* without compiling a regex
+        for (int i = 0; i < baseUri.length(); i++) {
+            char c = baseUri.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+        }
+        int firstOpeningBrace = baseUri.indexOf('{');
+        return firstOpeningBrace >= 0 && baseUri.lastIndexOf('}') > firstOpeningBrace + 1;
     }
 
     public String getBaseUri() {
@@ -117,12 +126,17 @@ public class PartialUriTemplateComponents {
     }
 
     /**
-     * Concatenates all components to uri String.
+     * Concatenates all components to uri String. The uri String is rendered once.
      *
      * @return uri String
      */
     public String toString() {
-        return baseUri + getQuery() + fragmentIdentifier;
+        String ret = uri;
+        if (ret == null) {
+            ret = baseUri + getQuery() + fragmentIdentifier;
+            uri = ret;
+        }
+        return ret;
     }
 
     public boolean hasVariables() {
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.affordance;
+
+/**
+ * Percent-encodes values which are expanded into a uri according to RFC 3986. Characters which may appear literally
+ * in the target component are kept, all other characters are encoded as UTF-8 octets. Values consisting of allowed
+ * ascii characters only, such as numeric ids, are not copied.
+ */
+public final class UriEncoder {
+
+    /**
+     * Uri component into which a value is expanded.
+     */
+    public enum Component {
+        /**
+         * Single path segment, i.e. <code>/</code> is encoded.
+         */
+        PATH_SEGMENT,
+        /**
+         * Query parameter value as <code>application/x-www-form-urlencoded</code> expects it, i.e. delimiters are
+         * encoded and a space becomes <code>+</code>.
+         */
+        QUERY_VALUE,
+        /**
+         * Fragment identifier.
+         */
+        FRAGMENT
+    }
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final boolean[] PATH_SEGMENT_CHARS = new boolean[128];
+    private static final boolean[] QUERY_VALUE_CHARS = new boolean[128];
+    private static final boolean[] FRAGMENT_CHARS = new boolean[128];
+
+    static {
+        String unreserved = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-._~";
+        String pchar = unreserved + "!$&'()*+,;=:@";
+        allow(PATH_SEGMENT_CHARS, pchar);
+        // '*' is kept for compatibility with form encoding
+        allow(QUERY_VALUE_CHARS, unreserved + "*");
+        allow(FRAGMENT_CHARS, pchar + "/?");
+    }
+
+    private static void allow(boolean[] allowed, String chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            allowed[chars.charAt(i)] = true;
+        }
+    }
+
+    private UriEncoder() {
+        // prevent instantiation
+    }
+
+    /**
+     * Encodes a value for the given component.
+     *
+     * @param value
+     *         to encode
+     * @param component
+     *         into which the value is expanded
+     * @return encoded value, the given value itself if nothing needs to be encoded
+     */
+    public static String encode(String value, Component component) {
+        boolean[] allowed = getAllowedChars(component);
+        int start = indexOfUnallowed(value, allowed);
+        if (start == -1) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 16);
+        sb.append(value, 0, start);
+        encode(sb, value, start, allowed, component);
+        return sb.toString();
+    }
+
+    /**
+     * Appends a value encoded for the given component.
+     *
+     * @param sb
+     *         to append to
+     * @param value
+     *         to encode
+     * @param component
+     *         into which the value is expanded
+     * @return the given string builder
+     */
+    public static StringBuilder appendEncoded(StringBuilder sb, String value, Component component) {
+        boolean[] allowed = getAllowedChars(component);
+        int start = indexOfUnallowed(value, allowed);
+        if (start == -1) {
+            return sb.append(value);
+        }
+        sb.append(value, 0, start);
+        encode(sb, value, start, allowed, component);
+        return sb;
+    }
+
+    private static boolean[] getAllowedChars(Component component) {
+        switch (component) {
+            case PATH_SEGMENT:
+                return PATH_SEGMENT_CHARS;
+            case QUERY_VALUE:
+                return QUERY_VALUE_CHARS;
+            case FRAGMENT:
+                return FRAGMENT_CHARS;
+            default:
+                throw new IllegalArgumentException("unknown component " + component);
+        }
+    }
+
+    private static int indexOfUnallowed(String value, boolean[] allowed) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 128 || !allowed[c]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void encode(StringBuilder sb, String value, int start, boolean[] allowed, Component component) {
+        int length = value.length();
+        int i = start;
+        while (i < length) {
+            char c = value.charAt(i++);
+            if (c < 128) {
+                if (allowed[c]) {
+                    sb.append(c);
+                } else if (c == ' ' && component == Component.QUERY_VALUE) {
+                    sb.append('+');
+                } else {
+                    appendOctet(sb, c);
+                }
+            } else if (c < 0x800) {
+                appendOctet(sb, 0xC0 | (c >> 6));
+                appendOctet(sb, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i < length && Character.isLowSurrogate(value.charAt(i))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(i++));
+                appendOctet(sb, 0xF0 | (codePoint >> 18));
+                appendOctet(sb, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendOctet(sb, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendOctet(sb, 0x80 | (codePoint & 0x3F));
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                // unpaired surrogate cannot be encoded as UTF-8
+                appendOctet(sb, '?');
+            } else {
+                appendOctet(sb, 0xE0 | (c >> 12));
+                appendOctet(sb, 0x80 | ((c >> 6) & 0x3F));
+                appendOctet(sb, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static void appendOctet(StringBuilder sb, int octet) {
+        sb.append('%')
+                .append(HEX_DIGITS[(octet >> 4) & 0xF])
+                .append(HEX_DIGITS[octet & 0xF]);
+    }
+}
@@ -44,6 +44,12 @@ import static org.springframework.util.StringUtils.hasText;
  */
 public class AffordanceBuilder implements LinkBuilder {
 
+    /**
+     * Request attribute holding the base uri of links built during the current request. Remove it if the servlet
+     * mapping changes within a request, e.g. when forwarding to another servlet.
+     */
+    public static final String BASE_URI_ATTRIBUTE = AffordanceBuilder.class.getName() + ".BASE_URI";
+
     private static final AffordanceBuilderFactory FACTORY = new AffordanceBuilderFactory();
 
     private PartialUriTemplateComponents partialUriTemplateComponents;
@@ -134,13 +140,76 @@ public class AffordanceBuilder implements LinkBuilder {
         return FACTORY.linkTo(methodInvocation);
     }
 
+    /**
+     * Creates {@link AffordanceBuilder}s pointing to the same controller method with varying arguments, e.g. for the
+     * items of a collection. The dummy method invocation only determines the controller method, its arguments are
+     * ignored.
+     * <pre>
+     * List&lt;Object[]&gt; ids = new ArrayList&lt;Object[]&gt;();
+     * for (Customer customer : customers) {
+     *   ids.add(new Object[]{customer.getId()});
+     * }
+     * List&lt;AffordanceBuilder&gt; builders = linkToEach(methodOn(CustomerController.class).showAddresses(null), ids);
+     * </pre>
+     * Other than calling {@link #linkTo(Object)} per item, the controller method is analyzed once and no proxy is
+     * created per item.
+     *
+     * @param methodInvocation
+     *         dummy method invocation
+     * @param argumentTuples
+     *         controller method arguments, one array per link
+     * @return builders in the order of the argument tuples
+     */
+    public static List<AffordanceBuilder> linkToEach(Object methodInvocation, Iterable<Object[]> argumentTuples) {
+        return FACTORY.linkToEach(methodInvocation, argumentTuples);
+    }
+
+    /**
+     * Creates {@link AffordanceBuilder}s pointing to the same controller method with varying arguments. The class
+     * level mapping must not have variables.
+     *
+     * @param controller
+     *         declaring the class level mapping
+     * @param method
+     *         controller method
+     * @param argumentTuples
+     *         controller method arguments, one array per link
+     * @return builders in the order of the argument tuples
+     * @see #linkToEach(Object, Iterable)
+     */
+    public static List<AffordanceBuilder> linkToEach(Class<?> controller, Method method,
+                                                     Iterable<Object[]> argumentTuples) {
+        return FACTORY.linkToEach(controller, method, argumentTuples);
+    }
+
+    /**
+     * Creates {@link AffordanceBuilder}s pointing to the same controller method with varying arguments, below a
+     * class level mapping with variables.
+     *
+     * @param controller
+     *         declaring the class level mapping
+     * @param method
+     *         controller method
+     * @param classMappingParameters
+     *         values of the variables of the class level mapping, shared by all links
+     * @param argumentTuples
+     *         controller method arguments, one array per link
+     * @return builders in the order of the argument tuples
+     * @see #linkToEach(Object, Iterable)
+     */
+    public static List<AffordanceBuilder> linkToEach(Class<?> controller, Method method,
+                                                     Object[] classMappingParameters,
+                                                     Iterable<Object[]> argumentTuples) {
+        return FACTORY.linkToEach(controller, method, classMappingParameters, argumentTuples);
+    }
+
 
     /**
-     * Creates a new {@link AffordanceBuilder} pointing to this server, but without ActionDescriptor.
+     * Creates a new {@link AffordanceBuilder} pointing to this server, but without ActionDescriptor. The base uri
+     * depends on request headers, so its template is not interned.
      */
     AffordanceBuilder() {
-        this(new PartialUriTemplate(getBuilder().build()
-                        .toString()).expand(Collections.<String, Object>emptyMap()),
+        this(new PartialUriTemplate(getBaseUri()).expand(Collections.<String, Object>emptyMap()),
                 Collections.<ActionDescriptor>emptyList());
     }
 
@@ -188,8 +257,8 @@ public class AffordanceBuilder implements LinkBuilder {
         Assert.state(!(rels.isEmpty() && reverseRels.isEmpty()),
                 "no rels or reverse rels found, call rel() or rev() before building the affordance");
         final Affordance affordance;
-        affordance = new Affordance(new PartialUriTemplate(this.toString()), actionDescriptors,
-                rels.toArray(new String[rels.size()]));
+        affordance = new Affordance(PartialUriTemplate.fromComponents(partialUriTemplateComponents),
+                actionDescriptors, rels.toArray(new String[rels.size()]));
         for (Map.Entry<String, List<String>> linkParamEntry : linkParams.entrySet()) {
             final List<String> values = linkParamEntry.getValue();
             for (String value : values) {
@@ -395,7 +464,7 @@ public class AffordanceBuilder implements LinkBuilder {
 
     @Override
     public URI toUri() {
-        PartialUriTemplate partialUriTemplate = new PartialUriTemplate(partialUriTemplateComponents.toString());
+        PartialUriTemplate partialUriTemplate = PartialUriTemplate.fromComponents(partialUriTemplateComponents);
 
         final String actionLink = partialUriTemplate.stripOptionalVariables(actionDescriptors)
                 .toString();
@@ -423,6 +492,27 @@ public class AffordanceBuilder implements LinkBuilder {
         return partialUriTemplateComponents.toString();
     }
 
+    /**
+     * Returns the uri of the current servlet mapping as built by {@link #getBuilder()}. The uri is computed once per
+     * request and kept as request attribute {@link #BASE_URI_ATTRIBUTE}, since all links rendered for a response share
+     * it. If no {@link RequestContextHolder} exists, the relative uri {@code /} is returned.
+     *
+     * @return base uri
+     */
+    static String getBaseUri() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return "/";
+        }
+        String baseUri = (String) requestAttributes.getAttribute(BASE_URI_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (baseUri == null) {
+            baseUri = getBuilder().build()
+                    .toString();
+            requestAttributes.setAttribute(BASE_URI_ATTRIBUTE, baseUri, RequestAttributes.SCOPE_REQUEST);
+        }
+        return baseUri;
+    }
+
     /**
      * Returns a {@link UriComponentsBuilder} obtained from the current servlet mapping with scheme tweaked in case the
      * request contains an {@code X-Forwarded-Ssl} header, which is not (yet) supported by the underlying
@@ -13,13 +13,13 @@
 
 package de.escalon.hypermedia.spring;
 
+import de.escalon.hypermedia.BoundedCache;
 import de.escalon.hypermedia.PropertyUtils;
 import de.escalon.hypermedia.action.Action;
 import de.escalon.hypermedia.action.Cardinality;
 import de.escalon.hypermedia.action.Input;
 import de.escalon.hypermedia.action.ResourceHandler;
 import de.escalon.hypermedia.affordance.ActionDescriptor;
-import de.escalon.hypermedia.affordance.ActionInputParameter;
 import de.escalon.hypermedia.affordance.DataType;
 import de.escalon.hypermedia.affordance.PartialUriTemplate;
 import org.jetbrains.annotations.NotNull;
@@ -38,7 +38,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.beans.PropertyDescriptor;
-import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
 import java.util.*;
 
@@ -50,6 +49,9 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
 
     private static final MappingDiscoverer MAPPING_DISCOVERER = new AnnotationMappingDiscoverer(RequestMapping.class);
 
+    private static final BoundedCache<BlueprintKey, LinkBlueprint> blueprints =
+            new BoundedCache<BlueprintKey, LinkBlueprint>(2048);
+
     @Override
     public AffordanceBuilder linkTo(Method method, Object... parameters) {
         return linkTo(method.getDeclaringClass(), method, parameters);
@@ -58,21 +60,11 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
     @Override
     public AffordanceBuilder linkTo(Class<?> controller, Method method, Object... parameters) {
 
-        String pathMapping = MAPPING_DISCOVERER.getMapping(controller, method);
-
-        Map<String, String> requestParamNames = getRequestParamNames(method);
-        Map<String, String> inputBeanParamNames = getInputBeanParamNames(method);
-
-        String query = join(requestParamNames, inputBeanParamNames);
-        // explicitly write out params where variable name and param are different, rest as continuation
-        String mapping = StringUtils.isEmpty(query) ? pathMapping : pathMapping + query;
-
-        PartialUriTemplate partialUriTemplate = new PartialUriTemplate(AffordanceBuilder.getBuilder()
-                .build()
-                .toString() + mapping);
+        LinkBlueprint blueprint = getBlueprint(controller, method);
+        Map<String, String> inputBeanParamNames = blueprint.inputBeanParamNames;
 
         Map<String, Object> values = new HashMap<String, Object>();
-        Iterator<String> variableNames = partialUriTemplate.getVariableNames()
+        Iterator<String> variableNames = blueprint.getVariableNames()
                 .iterator();
         // there may be more or less mapping variables than arguments
         for (Object parameter : parameters) {
@@ -93,9 +85,69 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
             }
         }
 
-        ActionDescriptor actionDescriptor = createActionDescriptor(method, values, parameters);
+        ActionDescriptor actionDescriptor = createActionDescriptor(blueprint, values, parameters);
+
+        return new AffordanceBuilder(blueprint.expand(AffordanceBuilder.getBaseUri(), values),
+                Collections.singletonList(actionDescriptor));
+    }
+
+    /**
+     * Gets the blueprint for links to the given handler method, which is created once per controller and method.
+     *
+     * @param controller
+     *         declaring the class level mapping
+     * @param method
+     *         handler method
+     * @return link blueprint
+     */
+    LinkBlueprint getBlueprint(Class<?> controller, Method method) {
+        BlueprintKey key = new BlueprintKey(controller, method);
+        LinkBlueprint blueprint = blueprints.get(key);
+        if (blueprint == null) {
+            blueprint = blueprints.cache(key, createBlueprint(controller, method));
+        }
+        return blueprint;
+    }
+
+    /**
+     * Gets the blueprint for links to the given handler method if it has been created already.
+     *
+     * @param controller
+     *         declaring the class level mapping
+     * @param method
+     *         handler method
+     * @return link blueprint or null
+     */
+    LinkBlueprint getCachedBlueprint(Class<?> controller, Method method) {
+        return blueprints.get(new BlueprintKey(controller, method));
+    }
+
+    private LinkBlueprint createBlueprint(Class<?> controller, Method method) {
+        String pathMapping = MAPPING_DISCOVERER.getMapping(controller, method);
+
+        Map<String, String> requestParamNames = getRequestParamNames(method);
+        Map<String, String> inputBeanParamNames = getInputBeanParamNames(method);
+
+        String query = join(requestParamNames, inputBeanParamNames);
+        // explicitly write out params where variable name and param are different, rest as continuation
+        String mapping = StringUtils.isEmpty(query) ? pathMapping : pathMapping + query;
+
+        RequestMethod httpMethod = getHttpMethod(method);
+        Cardinality cardinality = getCardinality(method, httpMethod, method.getGenericReturnType());
+        final Action actionAnnotation = AnnotationUtils.getAnnotation(method, Action.class);
+        String semanticActionType = actionAnnotation == null ? null : actionAnnotation.value();
+
+        MethodParameters parameters = new MethodParameters(method);
+        List<MethodParameter> requestBodies = parameters.getParametersWith(RequestBody.class);
+        Assert.state(requestBodies.size() < 2, "found more than one request body on " + method.getName());
 
-        return new AffordanceBuilder(partialUriTemplate.expand(values), Collections.singletonList(actionDescriptor));
+        SpringActionDescriptorTemplate actionDescriptorTemplate = new SpringActionDescriptorTemplate(method.getName(),
+                httpMethod.name(), cardinality, semanticActionType,
+                requestBodies.isEmpty() ? null : requestBodies.get(0), parameters.getParametersWith(RequestParam.class),
+                parameters.getParametersWith(PathVariable.class), parameters.getParametersWith(RequestHeader.class));
+
+        return new LinkBlueprint(method, mapping, Collections.unmodifiableMap(inputBeanParamNames),
+                actionDescriptorTemplate);
     }
 
     private String join(Map<String, String>... params) {
@@ -130,7 +182,7 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
 
         String mapping = MAPPING_DISCOVERER.getMapping(controller);
 
-        PartialUriTemplate partialUriTemplate = new PartialUriTemplate(mapping == null ? "/" : mapping);
+        PartialUriTemplate partialUriTemplate = PartialUriTemplate.intern(mapping == null ? "/" : mapping);
 
         Map<String, Object> values = new HashMap<String, Object>();
         Iterator<String> names = partialUriTemplate.getVariableNames()
@@ -148,7 +200,7 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
     @Override
     public AffordanceBuilder linkTo(Class<?> controller, Map<String, ?> parameters) {
         String mapping = MAPPING_DISCOVERER.getMapping(controller);
-        PartialUriTemplate partialUriTemplate = new PartialUriTemplate(mapping == null ? "/" : mapping);
+        PartialUriTemplate partialUriTemplate = PartialUriTemplate.intern(mapping == null ? "/" : mapping);
         return new AffordanceBuilder().slash(partialUriTemplate.expand(parameters));
     }
 
@@ -162,22 +214,106 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
         DummyInvocationUtils.MethodInvocation invocation = invocations.getLastInvocation();
         Method invokedMethod = invocation.getMethod();
 
-        String pathMapping = MAPPING_DISCOVERER.getMapping(invokedMethod);
-        Iterator<Object> classMappingParameters = invocations.getObjectParameters();
+        LinkBlueprint blueprint = getBlueprint(invokedMethod.getDeclaringClass(), invokedMethod);
+        return linkTo(blueprint, AffordanceBuilder.getBaseUri(), invocations.getObjectParameters(),
+                invocation.getArguments());
+    }
 
-        Map<String, String> requestParamNames = getRequestParamNames(invokedMethod);
-        Map<String, String> inputBeanParamNames = getInputBeanParamNames(invokedMethod);
+    /**
+     * Creates builders for links to the same handler method with varying arguments, e.g. for the items of a
+     * collection. The handler method and the class mapping parameters are taken from the given invocation, its
+     * method arguments are ignored. Blueprint and uri template are looked up once for all links, so every link only
+     * costs the expansion of the template.
+     *
+     * @param invocationValue
+     *         obtained by invoking the handler method on a proxy created by {@link AffordanceBuilder#methodOn(Class,
+     *         Object...)}
+     * @param argumentTuples
+     *         handler method arguments, one array per link
+     * @return builders in the order of the argument tuples
+     */
+    public List<AffordanceBuilder> linkToEach(Object invocationValue, Iterable<Object[]> argumentTuples) {
 
-        String query = join(requestParamNames, inputBeanParamNames);
-        String mapping = StringUtils.isEmpty(query) ? pathMapping : pathMapping + query;
+        Assert.isInstanceOf(DummyInvocationUtils.LastInvocationAware.class, invocationValue);
+        DummyInvocationUtils.LastInvocationAware invocations = (DummyInvocationUtils.LastInvocationAware)
+                invocationValue;
+
+        Method invokedMethod = invocations.getLastInvocation()
+                .getMethod();
+        List<Object> classMappingParameters = new ArrayList<Object>();
+        for (Iterator<Object> it = invocations.getObjectParameters(); it.hasNext(); ) {
+            classMappingParameters.add(it.next());
+        }
+        return linkToEach(invokedMethod.getDeclaringClass(), invokedMethod, classMappingParameters, argumentTuples);
+    }
 
-        PartialUriTemplate partialUriTemplate = new PartialUriTemplate(AffordanceBuilder.getBuilder()
-                .build()
-                .toString() + mapping);
+    /**
+     * Creates builders for links to the same handler method with varying arguments, e.g. for the items of a
+     * collection. Blueprint and uri template are looked up once for all links, so every link only costs the
+     * expansion of the template. The class level mapping must not have variables, use {@link #linkToEach(Class,
+     * Method, Object[], Iterable)} otherwise.
+     *
+     * @param controller
+     *         declaring the class level mapping
+     * @param method
+     *         handler method
+     * @param argumentTuples
+     *         handler method arguments, one array per link
+     * @return builders in the order of the argument tuples
+     */
+    public List<AffordanceBuilder> linkToEach(Class<?> controller, Method method, Iterable<Object[]> argumentTuples) {
+        return linkToEach(controller, method, new Object[0], argumentTuples);
+    }
 
+    /**
+     * Creates builders for links to the same handler method with varying arguments below a class level mapping with
+     * variables, e.g. for the items of a collection. Blueprint and uri template are looked up once for all links, so
+     * every link only costs the expansion of the template.
+     *
+     * @param controller
+     *         declaring the class level mapping
+     * @param method
+     *         handler method
+     * @param classMappingParameters
+     *         values of the variables of the class level mapping, shared by all links
+     * @param argumentTuples
+     *         handler method arguments, one array per link
+     * @return builders in the order of the argument tuples
+     */
+    public List<AffordanceBuilder> linkToEach(Class<?> controller, Method method, Object[] classMappingParameters,
+                                              Iterable<Object[]> argumentTuples) {
+        String mapping = MAPPING_DISCOVERER.getMapping(controller);
+        int classMappingVariableCount = mapping == null ? 0 : PartialUriTemplate.intern(mapping)
+                .getVariableNames()
+                .size();
+        Assert.isTrue(classMappingParameters.length == classMappingVariableCount, "expected " +
+                classMappingVariableCount + " parameters for class level mapping " + mapping + " of " +
+                controller.getName() + ", got " + classMappingParameters.length);
+        return linkToEach(controller, method, Arrays.asList(classMappingParameters), argumentTuples);
+    }
+
+    private List<AffordanceBuilder> linkToEach(Class<?> controller, Method method, List<Object>
+            classMappingParameters, Iterable<Object[]> argumentTuples) {
+        LinkBlueprint blueprint = getBlueprint(controller, method);
+        String baseUri = AffordanceBuilder.getBaseUri();
+
+        List<AffordanceBuilder> ret = new ArrayList<AffordanceBuilder>();
+        for (Object[] arguments : argumentTuples) {
+            Assert.isTrue(arguments.length == method.getParameterTypes().length, "expected " +
+                    method.getParameterTypes().length + " arguments for " + method.getName() + ", got " +
+                    arguments.length);
+            ret.add(linkTo(blueprint, baseUri, classMappingParameters.iterator(), arguments));
+        }
+        return ret;
+    }
+
+    private AffordanceBuilder linkTo(LinkBlueprint blueprint, String baseUri,
+                                     Iterator<Object> classMappingParameters, Object[] arguments) {
+
+        Map<String, String> inputBeanParamNames = blueprint.inputBeanParamNames;
 
         Map<String, Object> values = new HashMap<String, Object>();
-        Iterator<String> variableNames = partialUriTemplate.getVariableNames()
+        Iterator<String> variableNames = blueprint.getVariableNames()
                 .iterator();
         while (classMappingParameters.hasNext()) {
             values.put(variableNames.next(), classMappingParameters.next());
@@ -185,7 +321,7 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
 
         // there may be more or less mapping variables than arguments
         // do not use input bean param names here
-        for (Object argument : invocation.getArguments()) {
+        for (Object argument : arguments) {
             if (!variableNames.hasNext()) {
                 break;
             }
@@ -194,10 +330,9 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
                 values.put(variableName, argument);
             }
         }
-        ActionDescriptor actionDescriptor = createActionDescriptor(
-                invocation.getMethod(), values, invocation.getArguments());
+        ActionDescriptor actionDescriptor = createActionDescriptor(blueprint, values, arguments);
 
-        return new AffordanceBuilder(partialUriTemplate.expand(values), Collections.singletonList(actionDescriptor));
+        return new AffordanceBuilder(blueprint.expand(baseUri, values), Collections.singletonList(actionDescriptor));
     }
 
     private Map<String, String> getInputBeanParamNames(Method invokedMethod) {
@@ -292,70 +427,10 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
         return params;
     }
 
-    private ActionDescriptor createActionDescriptor(Method invokedMethod,
+    private ActionDescriptor createActionDescriptor(LinkBlueprint blueprint,
                                                     Map<String, Object> values, Object[] arguments) {
-        RequestMethod httpMethod = getHttpMethod(invokedMethod);
-        Type genericReturnType = invokedMethod.getGenericReturnType();
-
-        SpringActionDescriptor actionDescriptor =
-                new SpringActionDescriptor(invokedMethod.getName(), httpMethod.name());
-
-        actionDescriptor.setCardinality(getCardinality(invokedMethod, httpMethod, genericReturnType));
-
-        final Action actionAnnotation = AnnotationUtils.getAnnotation(invokedMethod, Action.class);
-        if (actionAnnotation != null) {
-            actionDescriptor.setSemanticActionType(actionAnnotation.value());
-        }
-
-        Map<String, ActionInputParameter> requestBodyMap = getActionInputParameters(RequestBody.class, invokedMethod,
-                arguments);
-        Assert.state(requestBodyMap.size() < 2, "found more than one request body on " + invokedMethod.getName());
-        for (ActionInputParameter value : requestBodyMap.values()) {
-            actionDescriptor.setRequestBody(value);
-        }
-
         // the action descriptor needs to know the param type, value and name
-        Map<String, ActionInputParameter> requestParamMap =
-                getActionInputParameters(RequestParam.class, invokedMethod, arguments);
-        for (Map.Entry<String, ActionInputParameter> entry : requestParamMap.entrySet()) {
-            ActionInputParameter value = entry.getValue();
-            if (value != null) {
-                final String key = entry.getKey();
-                actionDescriptor.addRequestParam(key, value);
-                if (!value.isRequestBody()) {
-                    values.put(key, value.getValueFormatted());
-                }
-            }
-        }
-
-        Map<String, ActionInputParameter> pathVariableMap =
-                getActionInputParameters(PathVariable.class, invokedMethod, arguments);
-        for (Map.Entry<String, ActionInputParameter> entry : pathVariableMap.entrySet()) {
-            ActionInputParameter actionInputParameter = entry.getValue();
-            if (actionInputParameter != null) {
-                final String key = entry.getKey();
-                actionDescriptor.addPathVariable(key, actionInputParameter);
-                if (!actionInputParameter.isRequestBody()) {
-                    values.put(key, actionInputParameter.getValueFormatted());
-                }
-            }
-        }
-
-        Map<String, ActionInputParameter> requestHeadersMap =
-                getActionInputParameters(RequestHeader.class, invokedMethod, arguments);
-
-        for (Map.Entry<String, ActionInputParameter> entry : requestHeadersMap.entrySet()) {
-            ActionInputParameter actionInputParameter = entry.getValue();
-            if (actionInputParameter != null) {
-                final String key = entry.getKey();
-                actionDescriptor.addRequestHeader(key, actionInputParameter);
-                if (!actionInputParameter.isRequestBody()) {
-                    values.put(key, actionInputParameter.getValueFormatted());
-                }
-            }
-        }
-
-        return actionDescriptor;
+        return blueprint.actionDescriptorTemplate.bind(arguments, values);
     }
 
     private Cardinality getCardinality(Method invokedMethod, RequestMethod httpMethod, Type genericReturnType) {
@@ -433,35 +508,30 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
         return requestMethod;
     }
 
-    /**
-     * Returns {@link ActionInputParameter}s contained in the method link.
-     *
-     * @param annotation to inspect
-     * @param method     must not be {@literal null}.
-     * @param arguments  to the method link
-     * @return maps parameter names to parameter info
-     */
-    private static Map<String, ActionInputParameter> getActionInputParameters(Class<? extends Annotation> annotation,
-                                                                              Method method, Object... arguments
-    ) {
-
-        Assert.notNull(method, "MethodInvocation must not be null!");
+    private static final class BlueprintKey {
+        private final Class<?> controller;
+        private final Method method;
 
-        MethodParameters parameters = new MethodParameters(method);
-        Map<String, ActionInputParameter> result = new HashMap<String, ActionInputParameter>();
+        BlueprintKey(Class<?> controller, Method method) {
+            this.controller = controller;
+            this.method = method;
+        }
 
-        for (MethodParameter parameter : parameters.getParametersWith(annotation)) {
-            final int parameterIndex = parameter.getParameterIndex();
-            final Object argument;
-            if (parameterIndex < arguments.length) {
-                argument = arguments[parameterIndex];
-            } else {
-                argument = null;
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
             }
-            ActionInputParameter inputParameter = new SpringActionInputParameter(parameter, argument);
-            result.put(inputParameter.getParameterName(), inputParameter);
+            if (!(o instanceof BlueprintKey)) {
+                return false;
+            }
+            BlueprintKey that = (BlueprintKey) o;
+            return controller == that.controller && method.equals(that.method);
         }
 
-        return result;
+        @Override
+        public int hashCode() {
+            return 31 * controller.hashCode() + method.hashCode();
+        }
     }
 }
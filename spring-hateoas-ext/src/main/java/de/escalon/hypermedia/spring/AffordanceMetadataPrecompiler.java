@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.escalon.hypermedia.PropertyUtils;
+import de.escalon.hypermedia.action.Input;
+import de.escalon.hypermedia.action.Options;
+import de.escalon.hypermedia.action.Select;
+import de.escalon.hypermedia.affordance.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.MethodParameter;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * Precomputes the affordance metadata of all handler methods known to the {@link RequestMappingHandlerMapping}s of
+ * the application context when the context is refreshed, so that the first requests need not compute it. For every
+ * handler method, the link blueprint with its action descriptor template and parameter names is cached. Request body
+ * and <code>@Input</code> bean types are only validated, media type specific descriptions of request bodies can be
+ * precomputed by overriding {@link #precompileRequestBody(Class)}.
+ * <p>
+ * Misconfigurations which would otherwise fail while rendering a response are reported at startup by an {@link
+ * IllegalStateException}: request body beans without default constructor whose <code>@JsonCreator</code> arguments
+ * are not all annotated with <code>@JsonProperty</code> and <code>@Select</code> options classes which the {@link
+ * SpringActionInputParameter#getOptionsResolver() options resolver} cannot provide. Bean types which have neither a
+ * default constructor nor a <code>@JsonCreator</code>, e.g. <code>UUID</code> or interfaces, are rendered without
+ * description and only logged as warning. Register it as a bean to enable it:
+ * </p>
+ * <pre>
+ * &#64;Bean
+ * public AffordanceMetadataPrecompiler affordanceMetadataPrecompiler() {
+ *     return new AffordanceMetadataPrecompiler();
+ * }
+ * </pre>
+ */
+public class AffordanceMetadataPrecompiler implements ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AffordanceMetadataPrecompiler.class);
+
+    private final AffordanceBuilderFactory affordanceBuilderFactory = new AffordanceBuilderFactory();
+
+    private boolean failOnError = true;
+
+    /**
+     * Determines if misconfigurations found at startup fail the context refresh. Otherwise, they are logged as
+     * warnings. Default is true.
+     *
+     * @param failOnError
+     *         false to log misconfigurations only
+     */
+    public void setFailOnError(boolean failOnError) {
+        this.failOnError = failOnError;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        Collection<RequestMappingHandlerMapping> handlerMappings = event.getApplicationContext()
+                .getBeansOfType(RequestMappingHandlerMapping.class)
+                .values();
+        List<String> errors = new ArrayList<String>();
+        int handlerMethodCount = 0;
+        for (RequestMappingHandlerMapping handlerMapping : handlerMappings) {
+            for (HandlerMethod handlerMethod : handlerMapping.getHandlerMethods()
+                    .values()) {
+                precompile(handlerMethod.getMethod(), errors);
+                handlerMethodCount++;
+            }
+        }
+        if (!errors.isEmpty()) {
+            if (failOnError) {
+                throw new IllegalStateException("affordance metadata misconfigured:\n" + StringUtils
+                        .collectionToDelimitedString(errors, "\n"));
+            }
+            for (String error : errors) {
+                LOG.warn(error);
+            }
+        }
+        LOG.debug("precompiled affordance metadata of {} handler methods", handlerMethodCount);
+    }
+
+    /**
+     * Precomputes the affordance metadata of a handler method.
+     *
+     * @param method
+     *         handler method
+     * @param errors
+     *         receives misconfigurations
+     */
+    void precompile(Method method, List<String> errors) {
+        try {
+            // links created from method invocations look up blueprints by declaring class
+            affordanceBuilderFactory.getBlueprint(method.getDeclaringClass(), method);
+        } catch (RuntimeException e) {
+            errors.add(method.toGenericString() + ": " + e.getMessage());
+            return;
+        }
+        Set<Class<?>> visitedBeanTypes = new HashSet<Class<?>>();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            MethodParameter methodParameter = new MethodParameter(method, i);
+            checkSelect(methodParameter, errors);
+            boolean requestBody = methodParameter.hasParameterAnnotation(RequestBody.class);
+            if (requestBody || methodParameter.hasParameterAnnotation(Input.class)) {
+                int errorCount = errors.size();
+                validateBeanType(parameterTypes[i], visitedBeanTypes, errors);
+                if (requestBody && errors.size() == errorCount) {
+                    try {
+                        precompileRequestBody(parameterTypes[i]);
+                    } catch (RuntimeException e) {
+                        errors.add(method.toGenericString() + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Precomputes media type specific metadata of a valid request body type, does nothing by default. Runtime
+     * exceptions are reported as misconfiguration of the handler method.
+     *
+     * @param requestBodyType
+     *         type of a <code>@RequestBody</code> parameter
+     */
+    protected void precompileRequestBody(Class<?> requestBodyType) {
+    }
+
+    private void validateBeanType(Class<?> beanType, Set<Class<?>> visitedBeanTypes, List<String> errors) {
+        if (DataType.isSingleValueType(beanType) || DataType.isArrayOrCollection(beanType)
+                || ObjectNode.class.isAssignableFrom(beanType) || Map.class.isAssignableFrom(beanType)
+                || !visitedBeanTypes.add(beanType)) {
+            return;
+        }
+        Constructor[] constructors = beanType.getConstructors();
+        if (PropertyUtils.findDefaultCtor(constructors) == null) {
+            Constructor constructor = PropertyUtils.findJsonCreator(constructors, JsonCreator.class);
+            if (constructor == null) {
+                LOG.warn("no default constructor or JsonCreator found for type {}, it is rendered without " +
+                        "description", beanType.getName());
+            } else {
+                Class<?>[] parameterTypes = constructor.getParameterTypes();
+                for (int i = 0; i < parameterTypes.length; i++) {
+                    MethodParameter methodParameter = new MethodParameter(constructor, i);
+                    if (!methodParameter.hasParameterAnnotation(JsonProperty.class)) {
+                        errors.add("not all constructor arguments of @JsonCreator " + constructor.getName() +
+                                " are annotated with @JsonProperty");
+                        break;
+                    }
+                    checkSelect(methodParameter, errors);
+                    validateBeanType(parameterTypes[i], visitedBeanTypes, errors);
+                }
+            }
+        }
+        for (PropertyDescriptor propertyDescriptor : PropertyUtils.getPropertyDescriptors(beanType)
+                .values()) {
+            Method writeMethod = propertyDescriptor.getWriteMethod();
+            if (writeMethod != null) {
+                checkSelect(new MethodParameter(writeMethod, 0), errors);
+                validateBeanType(propertyDescriptor.getPropertyType(), visitedBeanTypes, errors);
+            }
+        }
+    }
+
+    private void checkSelect(MethodParameter methodParameter, List<String> errors) {
+        Select select = methodParameter.getParameterAnnotation(Select.class);
+        if (select == null) {
+            return;
+        }
+        Class<? extends Options> optionsClass = select.options();
+        try {
+            SpringActionInputParameter.getOptionsResolver()
+                    .getOptions(optionsClass);
+        } catch (RuntimeException e) {
+            errors.add("options class " + optionsClass.getName() + " of @Select on " + methodParameter
+                    .getMember() + " cannot be resolved: " + e.getMessage());
+        }
+    }
+}
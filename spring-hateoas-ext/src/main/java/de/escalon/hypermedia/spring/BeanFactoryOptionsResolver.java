@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.action.Options;
+import de.escalon.hypermedia.action.OptionsResolver;
+import de.escalon.hypermedia.action.ReflectiveOptionsResolver;
+import org.springframework.beans.factory.ListableBeanFactory;
+
+/**
+ * Looks up options as beans of the given bean factory, so that options can use dependency injection and hold shared
+ * resources. Options classes which are not registered as beans are instantiated by their default constructor.
+ */
+public class BeanFactoryOptionsResolver implements OptionsResolver {
+
+    private final ListableBeanFactory beanFactory;
+
+    private final OptionsResolver fallback = new ReflectiveOptionsResolver();
+
+    /**
+     * Creates resolver which looks up options in the given bean factory.
+     *
+     * @param beanFactory
+     *         holding options beans, usually the application context
+     */
+    public BeanFactoryOptionsResolver(ListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Options getOptions(Class<? extends Options> optionsClass) {
+        if (beanFactory.getBeanNamesForType(optionsClass).length == 0) {
+            return fallback.getOptions(optionsClass);
+        }
+        return beanFactory.getBean(optionsClass);
+    }
+}
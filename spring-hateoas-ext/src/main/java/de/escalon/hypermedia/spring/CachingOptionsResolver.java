@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.BoundedCache;
+import de.escalon.hypermedia.action.Options;
+import de.escalon.hypermedia.action.OptionsResolver;
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the possible values of options resolved by another resolver, so that reference data is not queried on every
+ * rendered affordance. Possible values are cached per options class, keyed by the value and args passed to {@link
+ * Options#get}, until their time to live has passed. Once the maximum number of cached keys of an options class is
+ * exceeded, its cache is reset. Callers receive copies of the cached possible values.
+ */
+public class CachingOptionsResolver implements OptionsResolver {
+
+    private final OptionsResolver delegate;
+    private final CacheSettings defaultCacheSettings;
+
+    private final ConcurrentMap<Class<? extends Options>, CacheSettings> cacheSettingsByOptions =
+            new ConcurrentHashMap<Class<? extends Options>, CacheSettings>();
+
+    private final ConcurrentMap<Class<? extends Options>, CachingOptions> cachingOptions =
+            new ConcurrentHashMap<Class<? extends Options>, CachingOptions>();
+
+    /**
+     * Creates caching resolver.
+     *
+     * @param delegate
+     *         resolving the options whose possible values are cached
+     * @param timeToLiveMillis
+     *         default time to live of possible values
+     * @param maxSize
+     *         default maximum number of cached value and args combinations per options class
+     */
+    public CachingOptionsResolver(OptionsResolver delegate, long timeToLiveMillis, int maxSize) {
+        Assert.notNull(delegate, "delegate must not be null");
+        this.delegate = delegate;
+        this.defaultCacheSettings = new CacheSettings(timeToLiveMillis, maxSize);
+    }
+
+    /**
+     * Overrides the default cache settings for an options class. Possible values cached so far for that class are
+     * discarded.
+     *
+     * @param optionsClass
+     *         to configure
+     * @param timeToLiveMillis
+     *         of possible values, 0 disables caching
+     * @param maxSize
+     *         maximum number of cached value and args combinations
+     */
+    public void setCacheSettings(Class<? extends Options> optionsClass, long timeToLiveMillis, int maxSize) {
+        cacheSettingsByOptions.put(optionsClass, new CacheSettings(timeToLiveMillis, maxSize));
+        cachingOptions.remove(optionsClass);
+    }
+
+    /**
+     * Gets caching options for the given options class. When the options class is requested for the first time, it is
+     * resolved by the delegate once, so that options which cannot be resolved fail here rather than when possible
+     * values are needed.
+     *
+     * @param optionsClass
+     *         to resolve
+     * @return caching options
+     * @throws RuntimeException
+     *         if the delegate cannot resolve the options class
+     */
+    @Override
+    public Options getOptions(Class<? extends Options> optionsClass) {
+        CachingOptions options = cachingOptions.get(optionsClass);
+        if (options == null) {
+            delegate.getOptions(optionsClass);
+            CacheSettings cacheSettings = cacheSettingsByOptions.get(optionsClass);
+            options = new CachingOptions(optionsClass, cacheSettings == null ? defaultCacheSettings :
+                    cacheSettings);
+            CachingOptions existing = cachingOptions.putIfAbsent(optionsClass, options);
+            if (existing != null) {
+                options = existing;
+            }
+        }
+        return options;
+    }
+
+    private static class CacheSettings {
+
+        final long timeToLiveNanos;
+        final int maxSize;
+
+        CacheSettings(long timeToLiveMillis, int maxSize) {
+            Assert.isTrue(timeToLiveMillis >= 0, "timeToLiveMillis must not be negative");
+            Assert.isTrue(maxSize > 0, "maxSize must be positive");
+            this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+            this.maxSize = maxSize;
+        }
+    }
+
+    private static class CachedPossibleValues {
+
+        final Object[] possibleValues;
+        final long createdNanos;
+
+        CachedPossibleValues(Object[] possibleValues, long createdNanos) {
+            this.possibleValues = possibleValues;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    /**
+     * Options which resolve the actual options from the delegate only when possible values are not cached, so that
+     * options which are instantiated per call need not be thread-safe.
+     */
+    private class CachingOptions implements Options {
+
+        private final Class<? extends Options> optionsClass;
+        private final CacheSettings cacheSettings;
+        private final BoundedCache<List<Object>, CachedPossibleValues> possibleValuesByKey;
+
+        CachingOptions(Class<? extends Options> optionsClass, CacheSettings cacheSettings) {
+            this.optionsClass = optionsClass;
+            this.cacheSettings = cacheSettings;
+            this.possibleValuesByKey = new BoundedCache<List<Object>, CachedPossibleValues>(cacheSettings.maxSize);
+        }
+
+        @Override
+        public Object[] get(String[] value, Object... args) {
+            List<Object> key = Arrays.<Object>asList(asList(value), asList(args));
+            long now = System.nanoTime();
+            CachedPossibleValues cached = possibleValuesByKey.get(key);
+            if (cached == null || now - cached.createdNanos >= cacheSettings.timeToLiveNanos) {
+                Object[] possibleValues = delegate.getOptions(optionsClass)
+                        .get(value, args);
+                possibleValuesByKey.put(key, new CachedPossibleValues(possibleValues, now));
+                return possibleValues.clone();
+            }
+            return cached.possibleValues.clone();
+        }
+
+        private List<Object> asList(Object[] array) {
+            return array == null ? Collections.<Object>emptyList() : Arrays.asList(array);
+        }
+    }
+}
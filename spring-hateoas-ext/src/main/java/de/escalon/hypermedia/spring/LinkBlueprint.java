@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.affordance.PartialUriTemplate;
+import de.escalon.hypermedia.affordance.PartialUriTemplateComponents;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything {@link AffordanceBuilderFactory} needs to know about a handler method in order to build a link to it,
+ * determined once per handler method. Only binding of the invocation arguments and template expansion remain per
+ * link.
+ */
+class LinkBlueprint {
+
+    final Method method;
+    /**
+     * Path mapping of the handler method, followed by a query template for request params and input bean properties.
+     */
+    final String mapping;
+    final Map<String, String> inputBeanParamNames;
+    final SpringActionDescriptorTemplate actionDescriptorTemplate;
+    /**
+     * Parsed template of the mapping, without base uri, null if the mapping is empty.
+     */
+    private final PartialUriTemplate template;
+
+    LinkBlueprint(Method method, String mapping, Map<String, String> inputBeanParamNames,
+                  SpringActionDescriptorTemplate actionDescriptorTemplate) {
+        this.method = method;
+        this.mapping = mapping;
+        this.inputBeanParamNames = inputBeanParamNames;
+        this.actionDescriptorTemplate = actionDescriptorTemplate;
+        this.template = StringUtils.hasLength(mapping) ? new PartialUriTemplate(mapping) : null;
+    }
+
+    /**
+     * Gets the variable names of the mapping.
+     *
+     * @return variable names, must not be modified
+     */
+    List<String> getVariableNames() {
+        return template == null ? Collections.<String>emptyList() : template.getVariableNames();
+    }
+
+    /**
+     * Expands the mapping and prepends the given base uri. The base uri is not part of the parsed template, since it
+     * varies with the host and forwarded headers of requests.
+     *
+     * @param baseUri
+     *         of the current request
+     * @param values
+     *         of mapping variables
+     * @return expanded components
+     */
+    PartialUriTemplateComponents expand(String baseUri, Map<String, ?> values) {
+        if (template == null) {
+            return new PartialUriTemplateComponents(baseUri, "", "", "", Collections.<String>emptyList());
+        }
+        PartialUriTemplateComponents components = template.expand(values);
+        return new PartialUriTemplateComponents(baseUri + components.getBaseUri(), components.getQueryHead(),
+                components.getQueryTail(), components.getFragmentIdentifier(), components.getVariableNames());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.BoundedCache;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+
+/**
+ * Process-wide cache of discovered parameter names per method and constructor. Names are taken from reflection if the
+ * classes were compiled with <code>-parameters</code> and running on Java 8 or later, otherwise from the local
+ * variable table of the class file, which requires debug information.
+ */
+final class ParameterNames {
+
+    private static final String[] NO_NAMES = new String[0];
+
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    private static final BoundedCache<Member, String[]> parameterNames = new BoundedCache<Member, String[]>(4096);
+
+    private ParameterNames() {
+        // prevent instantiation
+    }
+
+    /**
+     * Gets the discovered name of a method or constructor parameter.
+     *
+     * @param methodParameter
+     *         to look up
+     * @return name or null if the name cannot be discovered
+     */
+    static String getParameterName(MethodParameter methodParameter) {
+        int parameterIndex = methodParameter.getParameterIndex();
+        if (parameterIndex < 0) {
+            // return type
+            return null;
+        }
+        String[] names = getParameterNames(methodParameter.getMember());
+        return parameterIndex < names.length ? names[parameterIndex] : null;
+    }
+
+    private static String[] getParameterNames(Member member) {
+        String[] names = parameterNames.get(member);
+        if (names == null) {
+            if (member instanceof Method) {
+                names = PARAMETER_NAME_DISCOVERER.getParameterNames((Method) member);
+            } else {
+                names = PARAMETER_NAME_DISCOVERER.getParameterNames((Constructor<?>) member);
+            }
+            names = parameterNames.cache(member, names == null ? NO_NAMES : names);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.action.Options;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memoizes possible values of {@link Options} implementations for the duration of the current request, so that
+ * options which query a database are asked once per request for the same value and args, no matter how many
+ * affordances of a response use them. Outside of a request, options are asked on every call.
+ */
+final class RequestScopedOptions {
+
+    private static final String POSSIBLE_VALUES_ATTRIBUTE = RequestScopedOptions.class.getName() +
+            ".POSSIBLE_VALUES";
+
+    private RequestScopedOptions() {
+        // prevent instantiation
+    }
+
+    /**
+     * Gets possible values from the given options class.
+     *
+     * @param optionsClass
+     *         to resolve if the possible values are not known yet
+     * @param value
+     *         as defined by {@link de.escalon.hypermedia.action.Select#value()}
+     * @param args
+     *         call values as defined by {@link de.escalon.hypermedia.action.Select#args()}
+     * @return possible values, a copy of the memoized values which the caller may modify
+     * @throws IllegalStateException
+     *         if the options class cannot be resolved
+     */
+    static Object[] getPossibleValues(Class<? extends Options> optionsClass, String[] value, Object[] args) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return SpringActionInputParameter.getOptionsResolver()
+                    .getOptions(optionsClass)
+                    .get(value, args);
+        }
+        @SuppressWarnings("unchecked")
+        Map<List<Object>, Object[]> possibleValuesByOptions = (Map<List<Object>, Object[]>) requestAttributes
+                .getAttribute(POSSIBLE_VALUES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (possibleValuesByOptions == null) {
+            possibleValuesByOptions = new HashMap<List<Object>, Object[]>();
+            requestAttributes.setAttribute(POSSIBLE_VALUES_ATTRIBUTE, possibleValuesByOptions,
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+        List<Object> key = Arrays.<Object>asList(optionsClass, Arrays.asList(value), Arrays.asList(args));
+        Object[] possibleValues = possibleValuesByOptions.get(key);
+        if (possibleValues == null) {
+            possibleValues = SpringActionInputParameter.getOptionsResolver()
+                    .getOptions(optionsClass)
+                    .get(value, args);
+            possibleValuesByOptions.put(key, possibleValues);
+        }
+        return possibleValues.clone();
+    }
+}
@@ -26,6 +26,7 @@ import org.springframework.util.Assert;
 
 import java.beans.PropertyDescriptor;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -52,6 +53,7 @@ public class SpringActionDescriptor implements ActionDescriptor {
 
     private ActionInputParameter requestBody;
     private Cardinality cardinality = Cardinality.SINGLE;
+    private Map<String, ActionInputParameter> requiredParameters;
 
     /**
      * Creates an {@link ActionDescriptor}.
@@ -129,6 +131,7 @@ public class SpringActionDescriptor implements ActionDescriptor {
      */
     public void addRequestParam(String key, ActionInputParameter actionInputParameter) {
         requestParams.put(key, actionInputParameter);
+        requiredParameters = null;
     }
 
     /**
@@ -158,6 +161,7 @@ public class SpringActionDescriptor implements ActionDescriptor {
 
     public void addPathVariable(String key, ActionInputParameter actionInputParameter) {
         pathVariables.put(key, actionInputParameter);
+        requiredParameters = null;
     }
 
     /**
@@ -305,12 +309,33 @@ public class SpringActionDescriptor implements ActionDescriptor {
     }
 
     /**
-     * Determines action input parameters for required url variables.
+     * Determines action input parameters for required url variables. The result is computed once and kept until
+     * another request param or path variable is added.
      *
-     * @return required url variables
+     * @return required url variables, must not be modified
      */
     @Override
     public Map<String, ActionInputParameter> getRequiredParameters() {
+        Map<String, ActionInputParameter> ret = requiredParameters;
+        if (ret == null) {
+            ret = Collections.unmodifiableMap(findRequiredParameters());
+            requiredParameters = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Sets the required url variables if they are known in advance, e.g. from a {@link
+     * SpringActionDescriptorTemplate}. They are discarded when another request param or path variable is added.
+     *
+     * @param requiredParameters
+     *         required url variables, must be unmodifiable
+     */
+    void setRequiredParameters(Map<String, ActionInputParameter> requiredParameters) {
+        this.requiredParameters = requiredParameters;
+    }
+
+    private Map<String, ActionInputParameter> findRequiredParameters() {
         Map<String, ActionInputParameter> ret = new HashMap<String, ActionInputParameter>();
         for (Map.Entry<String, ActionInputParameter> entry : requestParams.entrySet()) {
             ActionInputParameter annotatedParameter = entry.getValue();
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.action.Cardinality;
+import de.escalon.hypermedia.affordance.ActionInputParameter;
+import org.springframework.core.MethodParameter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable part of the {@link SpringActionDescriptor}s for a handler method, i.e. action name, http method,
+ * cardinality, semantic action type and the annotation metadata of its input parameters. A template is created once
+ * per handler method and shared by all links to it, so that only the argument values must be bound per link.
+ */
+final class SpringActionDescriptorTemplate {
+
+    private final String actionName;
+    private final String httpMethod;
+    private final Cardinality cardinality;
+    private final String semanticActionType;
+    private final SpringActionInputParameter requestBody;
+    private final Map<String, SpringActionInputParameter> requestParams;
+    private final Map<String, SpringActionInputParameter> pathVariables;
+    private final Map<String, SpringActionInputParameter> requestHeaders;
+    /**
+     * Names of required request params and of all path variables.
+     */
+    private final Set<String> requiredParameterNames;
+
+    SpringActionDescriptorTemplate(String actionName, String httpMethod, Cardinality cardinality,
+                                   String semanticActionType, MethodParameter requestBody,
+                                   List<MethodParameter> requestParams, List<MethodParameter> pathVariables,
+                                   List<MethodParameter> requestHeaders) {
+        this.actionName = actionName;
+        this.httpMethod = httpMethod;
+        this.cardinality = cardinality;
+        this.semanticActionType = semanticActionType;
+        this.requestBody = requestBody == null ? null : new SpringActionInputParameter(requestBody, null);
+        this.requestParams = getInputParameters(requestParams);
+        this.pathVariables = getInputParameters(pathVariables);
+        this.requestHeaders = getInputParameters(requestHeaders);
+        this.requiredParameterNames = getRequiredParameterNames(this.requestParams, this.pathVariables);
+    }
+
+    private static Set<String> getRequiredParameterNames(Map<String, SpringActionInputParameter> requestParams,
+                                                         Map<String, SpringActionInputParameter> pathVariables) {
+        Set<String> ret = new HashSet<String>();
+        for (Map.Entry<String, SpringActionInputParameter> entry : requestParams.entrySet()) {
+            if (entry.getValue()
+                    .isRequired()) {
+                ret.add(entry.getKey());
+            }
+        }
+        ret.addAll(pathVariables.keySet());
+        return Collections.unmodifiableSet(ret);
+    }
+
+    private static Map<String, SpringActionInputParameter> getInputParameters(List<MethodParameter> parameters) {
+        // keep the iteration order of a hash map by name, which descriptors have always used
+        Map<String, SpringActionInputParameter> byName = new HashMap<String, SpringActionInputParameter>();
+        for (MethodParameter parameter : parameters) {
+            SpringActionInputParameter inputParameter = new SpringActionInputParameter(parameter, null);
+            byName.put(inputParameter.getParameterName(), inputParameter);
+        }
+        return Collections.unmodifiableMap(new LinkedHashMap<String, SpringActionInputParameter>(byName));
+    }
+
+    /**
+     * Creates an action descriptor for the given handler method arguments.
+     *
+     * @param arguments
+     *         of the handler method, missing trailing arguments are treated as null
+     * @param uriVariables
+     *         receives the formatted values of request params, path variables and request headers by name
+     * @return action descriptor
+     */
+    SpringActionDescriptor bind(Object[] arguments, Map<String, Object> uriVariables) {
+        SpringActionDescriptor actionDescriptor = new SpringActionDescriptor(actionName, httpMethod);
+        actionDescriptor.setCardinality(cardinality);
+        if (semanticActionType != null) {
+            actionDescriptor.setSemanticActionType(semanticActionType);
+        }
+        if (requestBody != null) {
+            actionDescriptor.setRequestBody(requestBody.bind(arguments));
+        }
+        Map<String, ActionInputParameter> requiredParameters = new HashMap<String, ActionInputParameter>();
+        for (Map.Entry<String, SpringActionInputParameter> entry : requestParams.entrySet()) {
+            SpringActionInputParameter requestParam = entry.getValue()
+                    .bind(arguments);
+            actionDescriptor.addRequestParam(entry.getKey(), requestParam);
+            putValueFormatted(uriVariables, entry.getKey(), requestParam);
+            if (requiredParameterNames.contains(entry.getKey())) {
+                requiredParameters.put(entry.getKey(), requestParam);
+            }
+        }
+        for (Map.Entry<String, SpringActionInputParameter> entry : pathVariables.entrySet()) {
+            SpringActionInputParameter pathVariable = entry.getValue()
+                    .bind(arguments);
+            actionDescriptor.addPathVariable(entry.getKey(), pathVariable);
+            putValueFormatted(uriVariables, entry.getKey(), pathVariable);
+            requiredParameters.put(entry.getKey(), pathVariable);
+        }
+        for (Map.Entry<String, SpringActionInputParameter> entry : requestHeaders.entrySet()) {
+            SpringActionInputParameter requestHeader = entry.getValue()
+                    .bind(arguments);
+            actionDescriptor.addRequestHeader(entry.getKey(), requestHeader);
+            putValueFormatted(uriVariables, entry.getKey(), requestHeader);
+        }
+        actionDescriptor.setRequiredParameters(Collections.unmodifiableMap(requiredParameters));
+        return actionDescriptor;
+    }
+
+    private static void putValueFormatted(Map<String, Object> uriVariables, String name,
+                                          SpringActionInputParameter inputParameter) {
+        if (!inputParameter.isRequestBody()) {
+            uriVariables.put(name, inputParameter.getValueFormatted());
+        }
+    }
+}
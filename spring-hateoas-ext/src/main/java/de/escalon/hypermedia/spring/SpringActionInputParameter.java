@@ -15,12 +15,13 @@ package de.escalon.hypermedia.spring;
 
 import de.escalon.hypermedia.action.Input;
 import de.escalon.hypermedia.action.Options;
+import de.escalon.hypermedia.action.OptionsResolver;
+import de.escalon.hypermedia.action.ReflectiveOptionsResolver;
 import de.escalon.hypermedia.action.Select;
 import de.escalon.hypermedia.action.Type;
 import de.escalon.hypermedia.affordance.ActionDescriptor;
 import de.escalon.hypermedia.affordance.ActionInputParameter;
 import de.escalon.hypermedia.affordance.DataType;
-import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
@@ -39,25 +40,31 @@ import java.util.*;
  */
 public class SpringActionInputParameter implements ActionInputParameter {
 
+    private static volatile ConversionService defaultConversionService;
+
+    private static volatile OptionsResolver optionsResolver = new ReflectiveOptionsResolver();
+
     private final TypeDescriptor typeDescriptor;
     private final RequestBody requestBody;
     private final RequestParam requestParam;
     private final PathVariable pathVariable;
     private final RequestHeader requestHeader;
-    private Input inputAnnotation;
-    private MethodParameter methodParameter;
-    private Object value;
+    private final Input inputAnnotation;
+    private final MethodParameter methodParameter;
+    private final Object value;
     private Boolean arrayOrCollection = null;
-    private Map<String, Object> inputConstraints = new HashMap<String, Object>();
+    private final Map<String, Object> inputConstraints;
+    private String parameterName;
 
-    private ConversionService conversionService = new DefaultFormattingConversionService();
+    private final ConversionService conversionService;
 
     /**
      * Creates action input parameter.
      *
      * @param methodParameter   to describe
      * @param value             used during sample invocation
-     * @param conversionService to apply to value
+     * @param conversionService to apply to value, null to use the {@link #getDefaultConversionService() default
+     *                          conversion service}
      */
     public SpringActionInputParameter(MethodParameter methodParameter, Object value, ConversionService
             conversionService) {
@@ -70,30 +77,126 @@ public class SpringActionInputParameter implements ActionInputParameter {
         // always determine input constraints,
         // might be a nested property which is neither requestBody, requestParam nor pathVariable
         this.inputAnnotation = methodParameter.getParameterAnnotation(Input.class);
+        Map<String, Object> inputConstraints = new HashMap<String, Object>();
         if (inputAnnotation != null) {
-            putInputConstraint(Input.MIN, Integer.MIN_VALUE, inputAnnotation.min());
-            putInputConstraint(Input.MAX, Integer.MAX_VALUE, inputAnnotation.max());
-            putInputConstraint(Input.MIN_LENGTH, Integer.MIN_VALUE, inputAnnotation.minLength());
-            putInputConstraint(Input.MAX_LENGTH, Integer.MAX_VALUE, inputAnnotation.maxLength());
-            putInputConstraint(Input.STEP, 0, inputAnnotation.step());
-            putInputConstraint(Input.PATTERN, "", inputAnnotation.pattern());
+            putInputConstraint(inputConstraints, Input.MIN, Integer.MIN_VALUE, inputAnnotation.min());
+            putInputConstraint(inputConstraints, Input.MAX, Integer.MAX_VALUE, inputAnnotation.max());
+            putInputConstraint(inputConstraints, Input.MIN_LENGTH, Integer.MIN_VALUE, inputAnnotation.minLength());
+            putInputConstraint(inputConstraints, Input.MAX_LENGTH, Integer.MAX_VALUE, inputAnnotation.maxLength());
+            putInputConstraint(inputConstraints, Input.STEP, 0, inputAnnotation.step());
+            putInputConstraint(inputConstraints, Input.PATTERN, "", inputAnnotation.pattern());
         }
+        // shared by all parameters bound from this one
+        this.inputConstraints = Collections.unmodifiableMap(inputConstraints);
         this.conversionService = conversionService;
         this.typeDescriptor = TypeDescriptor.nested(methodParameter, 0);
     }
 
     /**
-     * Creates new ActionInputParameter with default formatting conversion service.
+     * Creates new ActionInputParameter with the {@link #getDefaultConversionService() default conversion service}.
      *
      * @param methodParameter holding metadata about the parameter
      * @param value           during sample method invocation
      */
     public SpringActionInputParameter(MethodParameter methodParameter, Object value) {
-        this(methodParameter, value, new DefaultFormattingConversionService());
+        this(methodParameter, value, null);
+    }
+
+
+    /**
+     * Creates action input parameter for another value, sharing the metadata of the given parameter.
+     *
+     * @param template whose method parameter, annotations, input constraints and conversion service are shared
+     * @param value    used during sample invocation
+     */
+    private SpringActionInputParameter(SpringActionInputParameter template, Object value) {
+        this.methodParameter = template.methodParameter;
+        this.value = value;
+        this.requestBody = template.requestBody;
+        this.requestParam = template.requestParam;
+        this.pathVariable = template.pathVariable;
+        this.requestHeader = template.requestHeader;
+        this.inputAnnotation = template.inputAnnotation;
+        this.inputConstraints = template.inputConstraints;
+        this.conversionService = template.conversionService;
+        this.typeDescriptor = template.typeDescriptor;
+        this.arrayOrCollection = template.arrayOrCollection;
+        this.parameterName = template.parameterName;
     }
 
+    /**
+     * Creates action input parameter for the handler method argument of this parameter, sharing the metadata of
+     * this parameter.
+     *
+     * @param arguments of the handler method, missing trailing arguments are treated as null
+     * @return action input parameter holding the argument as value
+     */
+    SpringActionInputParameter bind(Object[] arguments) {
+        int parameterIndex = methodParameter.getParameterIndex();
+        return withValue(parameterIndex < arguments.length ? arguments[parameterIndex] : null);
+    }
+
+    /**
+     * Creates action input parameter for another value, sharing the metadata of this parameter.
+     *
+     * @param value used during sample invocation
+     * @return action input parameter holding the given value
+     */
+    public SpringActionInputParameter withValue(Object value) {
+        return new SpringActionInputParameter(this, value);
+    }
+
+    /**
+     * Gets the conversion service which formats values of action input parameters created without a conversion
+     * service. Unless set otherwise, this is a {@link DefaultFormattingConversionService} shared by all parameters.
+     *
+     * @return conversion service, never null
+     */
+    public static ConversionService getDefaultConversionService() {
+        ConversionService ret = defaultConversionService;
+        return ret == null ? DefaultConversionServiceHolder.INSTANCE : ret;
+    }
 
-    private void putInputConstraint(String key, Object defaultValue, Object value) {
+    /**
+     * Allows to format values with the given conversion service, e.g. with the <code>mvcConversionService</code> of
+     * the application context, so that links use the same formatters as request binding. The conversion service must
+     * be thread-safe. A {@link SpringActionInputParameterConfigurer} bean sets it from the application context.
+     *
+     * @param conversionService to use for action input parameters created without a conversion service, null to
+     *                          restore the shared {@link DefaultFormattingConversionService}
+     */
+    public static void setDefaultConversionService(ConversionService conversionService) {
+        defaultConversionService = conversionService;
+    }
+
+    /**
+     * Gets the resolver which provides the options of <code>@Select</code> parameters.
+     *
+     * @return options resolver, never null
+     */
+    public static OptionsResolver getOptionsResolver() {
+        return optionsResolver;
+    }
+
+    /**
+     * Allows to provide the options of <code>@Select</code> parameters, e.g. as beans of the application context by
+     * a {@link BeanFactoryOptionsResolver}, possibly wrapped by a {@link CachingOptionsResolver}. A {@link
+     * SpringActionInputParameterConfigurer} bean sets it from the application context.
+     *
+     * @param optionsResolver to use, null to restore the {@link ReflectiveOptionsResolver} which instantiates
+     *                        options on every call
+     */
+    public static void setOptionsResolver(OptionsResolver optionsResolver) {
+        SpringActionInputParameter.optionsResolver = optionsResolver == null ? new ReflectiveOptionsResolver() :
+                optionsResolver;
+    }
+
+    private static final class DefaultConversionServiceHolder {
+        static final ConversionService INSTANCE = new DefaultFormattingConversionService();
+    }
+
+    private static void putInputConstraint(Map<String, Object> inputConstraints, String key, Object defaultValue,
+                                           Object value) {
         if (!value.equals(defaultValue)) {
             inputConstraints.put(key, value);
         }
@@ -118,7 +221,8 @@ public class SpringActionInputParameter implements ActionInputParameter {
         if (value == null) {
             ret = null;
         } else {
-            ret = (String) conversionService.convert(value, typeDescriptor, TypeDescriptor.valueOf(String.class));
+            ConversionService service = conversionService == null ? getDefaultConversionService() : conversionService;
+            ret = (String) service.convert(value, typeDescriptor, TypeDescriptor.valueOf(String.class));
         }
         return ret;
     }
@@ -308,7 +412,6 @@ public class SpringActionInputParameter implements ActionInputParameter {
                 Select select = methodParameter.getParameterAnnotation(Select.class);
                 if (select != null) {
                     Class<? extends Options> optionsClass = select.options();
-                    Options options = optionsClass.newInstance();
                     // collect call values to pass to options.get
                     List<Object> from = new ArrayList<Object>();
                     for (String paramName : select.args()) {
@@ -319,7 +422,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
                     }
 
                     Object[] args = from.toArray();
-                    possibleValues = options.get(select.value(), args);
+                    possibleValues = RequestScopedOptions.getPossibleValues(optionsClass, select.value(), args);
                 } else {
                     possibleValues = new Object[0];
                 }
@@ -428,6 +531,15 @@ public class SpringActionInputParameter implements ActionInputParameter {
      */
     @Override
     public String getParameterName() {
+        String ret = parameterName;
+        if (ret == null) {
+            ret = findParameterName();
+            parameterName = ret;
+        }
+        return ret;
+    }
+
+    private String findParameterName() {
         String ret = null;
         if (requestParam != null) {
             String requestParamName = requestParam.value();
@@ -442,8 +554,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
         if (ret == null) {
             String parameterName = methodParameter.getParameterName();
             if (parameterName == null) {
-                methodParameter.initParameterNameDiscovery(new LocalVariableTableParameterNameDiscoverer());
-                ret = methodParameter.getParameterName();
+                ret = ParameterNames.getParameterName(methodParameter);
             } else {
                 ret = parameterName;
             }
@@ -481,7 +592,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
     /**
      * Gets the input constraints defined for this action input parameter.
      *
-     * @return constraints
+     * @return constraints, unmodifiable
      */
     public Map<String, Object> getInputConstraints() {
         return inputConstraints;
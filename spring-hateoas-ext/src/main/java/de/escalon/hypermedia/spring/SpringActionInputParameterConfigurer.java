@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.action.OptionsResolver;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.convert.ConversionService;
+
+/**
+ * Installs the conversion service of the application context as {@link
+ * SpringActionInputParameter#getDefaultConversionService() default conversion service} of action input parameters,
+ * so that links format values like the handler mappings which parse them, and an {@link
+ * SpringActionInputParameter#getOptionsResolver() options resolver} which looks up <code>@Select</code> options as
+ * beans. Input parameters are created outside of the container, e.g. by {@link AffordanceBuilder#linkTo}, hence both
+ * remain static defaults which this bean sets after all singletons are instantiated and restores when the context is
+ * closed. Register it as a bean:
+ * <pre>
+ * &#64;Bean
+ * public SpringActionInputParameterConfigurer springActionInputParameterConfigurer() {
+ *     return new SpringActionInputParameterConfigurer();
+ * }
+ * </pre>
+ * The bean named <code>mvcConversionService</code> is used if present, otherwise the only {@link ConversionService}
+ * bean of the context. Without such a bean, the default conversion service is left untouched. The only {@link
+ * OptionsResolver} bean of the context is installed as options resolver, e.g. a {@link CachingOptionsResolver}.
+ * Without such a bean, a {@link BeanFactoryOptionsResolver} for the context is installed.
+ */
+public class SpringActionInputParameterConfigurer implements ApplicationContextAware, SmartInitializingSingleton,
+        DisposableBean {
+
+    static final String MVC_CONVERSION_SERVICE_BEAN_NAME = "mvcConversionService";
+
+    private ApplicationContext applicationContext;
+
+    private ConversionService installedConversionService;
+
+    private OptionsResolver installedOptionsResolver;
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ConversionService conversionService = findConversionService();
+        if (conversionService != null) {
+            SpringActionInputParameter.setDefaultConversionService(conversionService);
+            installedConversionService = conversionService;
+        }
+        OptionsResolver optionsResolver = findOptionsResolver();
+        SpringActionInputParameter.setOptionsResolver(optionsResolver);
+        installedOptionsResolver = optionsResolver;
+    }
+
+    private ConversionService findConversionService() {
+        if (applicationContext.containsBean(MVC_CONVERSION_SERVICE_BEAN_NAME)
+                && applicationContext.isTypeMatch(MVC_CONVERSION_SERVICE_BEAN_NAME, ConversionService.class)) {
+            return applicationContext.getBean(MVC_CONVERSION_SERVICE_BEAN_NAME, ConversionService.class);
+        }
+        String[] beanNames = applicationContext.getBeanNamesForType(ConversionService.class);
+        if (beanNames.length == 1) {
+            return applicationContext.getBean(beanNames[0], ConversionService.class);
+        }
+        return null;
+    }
+
+    private OptionsResolver findOptionsResolver() {
+        String[] beanNames = applicationContext.getBeanNamesForType(OptionsResolver.class);
+        if (beanNames.length == 1) {
+            return applicationContext.getBean(beanNames[0], OptionsResolver.class);
+        }
+        return new BeanFactoryOptionsResolver(applicationContext);
+    }
+
+    @Override
+    public void destroy() {
+        // another context may have installed its own defaults in the meantime
+        if (installedConversionService != null
+                && SpringActionInputParameter.getDefaultConversionService() == installedConversionService) {
+            SpringActionInputParameter.setDefaultConversionService(null);
+        }
+        if (installedOptionsResolver != null
+                && SpringActionInputParameter.getOptionsResolver() == installedOptionsResolver) {
+            SpringActionInputParameter.setOptionsResolver(null);
+        }
+        installedConversionService = null;
+        installedOptionsResolver = null;
+    }
+}
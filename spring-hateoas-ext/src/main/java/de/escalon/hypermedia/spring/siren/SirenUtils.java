@@ -4,6 +4,7 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.io.Closeable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
@@ -63,7 +64,13 @@ public class SirenUtils {
 
                 objectNode.setLinks(this.toSirenLinks(getNavigationalLinks(resources.getLinks())));
                 Collection<?> content = resources.getContent();
-                toSirenEntity(objectNode, content);
+                try {
+                    toSirenEntity(objectNode, content);
+                } finally {
+                    if (content instanceof Closeable) {
+                        ((Closeable) content).close();
+                    }
+                }
                 objectNode.setActions(this.toSirenActions(getActions(resources.getLinks())));
                 return;
             } else if (object instanceof ResourceSupport) {
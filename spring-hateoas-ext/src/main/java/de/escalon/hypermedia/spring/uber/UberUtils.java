@@ -30,6 +30,7 @@ import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.RequestMethod;
 
 import java.beans.PropertyDescriptor;
+import java.io.Closeable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
@@ -76,7 +77,13 @@ public class UberUtils {
                 objectNode.addLinks(resources.getLinks());
 
                 Collection<?> content = resources.getContent();
-                toUberData(objectNode, content);
+                try {
+                    toUberData(objectNode, content);
+                } finally {
+                    if (content instanceof Closeable) {
+                        ((Closeable) content).close();
+                    }
+                }
                 return;
             } else if (object instanceof ResourceSupport) {
                 ResourceSupport resource = (ResourceSupport) object;
@@ -446,8 +453,6 @@ public class UberUtils {
         } else {
             SpringActionDescriptor actionDescriptor = new SpringActionDescriptor("get", RequestMethod.GET
                     .name());
-            PartialUriTemplate partialUriTemplate = new PartialUriTemplate(link.getHref());
-            PartialUriTemplateComponents parts = partialUriTemplate.asComponents();
             actionDescriptors = Arrays.asList((ActionDescriptor) actionDescriptor);
         }
         return actionDescriptors;
@@ -300,7 +300,13 @@ public class XhtmlResourceMessageConverter extends AbstractHttpMessageConverter<
 
                 writer.beginUnorderedList();
                 Collection<?> content = resources.getContent();
-                writeResource(writer, content);
+                try {
+                    writeResource(writer, content);
+                } finally {
+                    if (content instanceof Closeable) {
+                        ((Closeable) content).close();
+                    }
+                }
                 writer.endUnorderedList();
 
                 writer.writeLinks(resources.getLinks());
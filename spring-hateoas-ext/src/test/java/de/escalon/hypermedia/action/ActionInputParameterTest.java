@@ -7,6 +7,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -283,4 +285,38 @@ public class ActionInputParameterTest {
         assertFalse(actionInputParameter.isRequestHeader());
         assertFalse(actionInputParameter.isPathVariable());
     }
-}
\ No newline at end of file
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testInputConstraintsAreImmutable() throws NoSuchMethodException {
+        Method addReview = DummyController.class.getMethod("addReview", String.class, String.class);
+        MethodParameter reviewBody = new MethodParameter(addReview, 1);
+
+        new SpringActionInputParameter(reviewBody, "yada, yada").getInputConstraints()
+                .put("maxLength", 10);
+    }
+
+    @Test
+    public void testFormatsValueWithDefaultConversionService() throws NoSuchMethodException {
+        Method addReview = DummyController.class.getMethod("addReview", String.class, String.class);
+        MethodParameter reviewBody = new MethodParameter(addReview, 1);
+
+        assertSame(SpringActionInputParameter.getDefaultConversionService(),
+                SpringActionInputParameter.getDefaultConversionService());
+        assertEquals("yada", new SpringActionInputParameter(reviewBody, "yada").getValueFormatted());
+
+        DefaultConversionService conversionService = new DefaultConversionService();
+        conversionService.addConverter(String.class, String.class, new Converter<String, String>() {
+            @Override
+            public String convert(String source) {
+                return source.toUpperCase();
+            }
+        });
+        SpringActionInputParameter.setDefaultConversionService(conversionService);
+        try {
+            assertEquals("YADA", new SpringActionInputParameter(reviewBody, "yada").getValueFormatted());
+        } finally {
+            SpringActionInputParameter.setDefaultConversionService(null);
+        }
+        assertEquals("yada", new SpringActionInputParameter(reviewBody, "yada").getValueFormatted());
+    }
+}
@@ -21,8 +21,10 @@ import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLDecoder;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 import static org.hamcrest.Matchers.contains;
 import static org.junit.Assert.assertEquals;
@@ -344,4 +346,95 @@ public class PartialUriTemplateTest {
                 ".html&fragment=/contractDetails/{ref}", template.expand()
                 .toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testInternSharesTemplate() {
+        final PartialUriTemplate template = PartialUriTemplate.intern("http://example.com/events/{eventId}");
+
+        Assert.assertSame(template, PartialUriTemplate.intern("http://example.com/events/{eventId}"));
+        assertEquals("http://example.com/events/1", template.expand("1")
+                .toString());
+        assertEquals("http://example.com/events/2", template.expand("2")
+                .toString());
+    }
+
+    @Test
+    public void testKeepsBracesWhichAreNoVariables() {
+        final PartialUriTemplate template = new PartialUriTemplate("http://example.com/{ }/events/{id:[0-9]+}{?q}");
+
+        assertThat(template.getVariableNames(), contains("id", "q"));
+        assertEquals("http://example.com/{ }/events/1?q=x", template.expand("1", "x")
+                .toString());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testVariableNamesAreImmutable() {
+        new PartialUriTemplate("http://example.com/events/{eventId}").getVariableNames()
+                .add("foo");
+    }
+
+    @Test
+    public void testFromComponentsKeepsUnexpandedQueryVariables() {
+        final PartialUriTemplate template = new PartialUriTemplate("http://example.com/events{?eventName," +
+                "location}#description");
+        Map<String, Object> val = new HashMap<String, Object>();
+        val.put("eventName", "Revo Tour");
+        final PartialUriTemplateComponents expanded = template.expand(val);
+
+        final PartialUriTemplate fromComponents = PartialUriTemplate.fromComponents(expanded);
+
+        assertThat(fromComponents.getVariableNames(), contains("location"));
+        assertEquals("http://example.com/events?eventName=Revo+Tour{&location}#description",
+                fromComponents.asComponents()
+                        .toString());
+        assertEquals("http://example.com/events?eventName=Revo+Tour&location=Schlachthof#description",
+                fromComponents.expand("Schlachthof")
+                        .toString());
+    }
+
+    @Test
+    public void testFromComponentsIsEquivalentToParsingTheComponents() {
+        final String[] baseUris = {"", "/events", "http://example.com/events", "http://example.com/events/{id}",
+                "/events{/id}", "http://example.com/{ }/events", "http://example.com/events?type={type}",
+                "{+base}/events"};
+        final String[] queries = {"", "{?q}", "{?q,offset}", "{?q}{&offset}", "?fixed=1", "?fixed=1{&q,offset}",
+                "{?bar.baz,q}"};
+        final String[] fragments = {"", "#description", "{#section}", "#/order/{id}"};
+        final String[] names = {"id", "type", "base", "q", "offset", "bar.baz", "section"};
+        final String[] values = {"1", "Revo Tour", "http://example.org", "a/b", "x&y"};
+
+        Random random = new Random(4711L);
+        for (int i = 0; i < 1000; i++) {
+            String template = baseUris[random.nextInt(baseUris.length)] + queries[random.nextInt(queries.length)]
+                    + fragments[random.nextInt(fragments.length)];
+            if (template.length() == 0) {
+                continue;
+            }
+            Map<String, Object> partialValues = new HashMap<String, Object>();
+            Map<String, Object> allValues = new HashMap<String, Object>();
+            for (String name : names) {
+                String value = values[random.nextInt(values.length)];
+                if (random.nextBoolean()) {
+                    partialValues.put(name, value);
+                }
+                allValues.put(name, value);
+            }
+            PartialUriTemplateComponents components = new PartialUriTemplate(template).expand(partialValues);
+
+            PartialUriTemplate fromComponents = PartialUriTemplate.fromComponents(components);
+            PartialUriTemplate parsed = new PartialUriTemplate(components.toString());
+
+            String message = template + " expanded with " + partialValues;
+            assertEquals(message, parsed.getVariableNames(), fromComponents.getVariableNames());
+            assertEquals(message, parsed.asComponents()
+                    .toString(), fromComponents.asComponents()
+                    .toString());
+            assertEquals(message, parsed.expand(Collections.<String, Object>emptyMap())
+                    .toString(), fromComponents.expand(Collections.<String, Object>emptyMap())
+                    .toString());
+            assertEquals(message, parsed.expand(allValues)
+                    .toString(), fromComponents.expand(allValues)
+                    .toString());
+        }
+    }
+}
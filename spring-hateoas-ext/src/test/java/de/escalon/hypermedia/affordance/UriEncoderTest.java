@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.affordance;
+
+import de.escalon.hypermedia.affordance.UriEncoder.Component;
+import org.junit.Test;
+
+import java.net.URLEncoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class UriEncoderTest {
+
+    @Test
+    public void testReturnsValueWithAllowedCharsOnlyUnchanged() {
+        String value = "4711";
+        assertSame(value, UriEncoder.encode(value, Component.PATH_SEGMENT));
+        assertSame(value, UriEncoder.encode(value, Component.QUERY_VALUE));
+        assertSame(value, UriEncoder.encode(value, Component.FRAGMENT));
+    }
+
+    @Test
+    public void testEncodesSpaceInPathSegmentAsPercent20() {
+        assertEquals("Revo%20Tour", UriEncoder.encode("Revo Tour", Component.PATH_SEGMENT));
+        assertEquals("Revo%20Tour", UriEncoder.encode("Revo Tour", Component.FRAGMENT));
+    }
+
+    @Test
+    public void testEncodesSpaceInQueryValueAsPlus() {
+        assertEquals("Revo+Tour", UriEncoder.encode("Revo Tour", Component.QUERY_VALUE));
+    }
+
+    @Test
+    public void testKeepsComponentSpecificDelimiters() {
+        assertEquals("a%2Fb:c@d;e=f", UriEncoder.encode("a/b:c@d;e=f", Component.PATH_SEGMENT));
+        assertEquals("a%2Fb%3Fc%26d%3De%2Bf%23g", UriEncoder.encode("a/b?c&d=e+f#g", Component.QUERY_VALUE));
+        assertEquals("/order?x=1%23y", UriEncoder.encode("/order?x=1#y", Component.FRAGMENT));
+    }
+
+    @Test
+    public void testEncodesNonAsciiAsUtf8() throws Exception {
+        String value = "Grüße € 😀";
+        assertEquals(URLEncoder.encode(value, "UTF-8"), UriEncoder.encode(value, Component.QUERY_VALUE));
+        assertEquals("Gr%C3%BC%C3%9Fe%20%E2%82%AC%20%F0%9F%98%80", UriEncoder.encode(value, Component.PATH_SEGMENT));
+    }
+
+    @Test
+    public void testAppendsEncodedValue() {
+        StringBuilder sb = new StringBuilder("/events/");
+        UriEncoder.appendEncoded(sb, "München 2", Component.PATH_SEGMENT);
+        assertEquals("/events/M%C3%BCnchen%202", sb.toString());
+    }
+}
@@ -14,6 +14,7 @@
 package de.escalon.hypermedia.spring;
 
 import de.escalon.hypermedia.action.Input;
+import de.escalon.hypermedia.affordance.ActionDescriptor;
 import de.escalon.hypermedia.affordance.Affordance;
 import org.junit.Before;
 import org.junit.Test;
@@ -32,9 +33,12 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 
 public class AffordanceBuilderFactoryTest {
 
@@ -140,6 +144,18 @@ public class AffordanceBuilderFactoryTest {
         }
     }
 
+    @Controller
+    @RequestMapping("/events/{eventId}/reviews")
+    static class ReviewControllerSample {
+
+        @RequestMapping(value = "/{reviewId}", method = RequestMethod.GET)
+        public
+        @ResponseBody
+        Resource<Object> getReview(@PathVariable String reviewId) {
+            return null;
+        }
+    }
+
     @Before
     public void setUp() {
         request = MockMvcRequestBuilders.get("http://example.com/")
@@ -335,4 +351,118 @@ public class AffordanceBuilderFactoryTest {
         assertEquals("schema:parent", affordance.getRev());
         assertEquals("ex:children", affordance.getRel());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLinkToSameMethodBindsArgumentsPerLinkAndBaseUriPerRequest() throws Exception {
+        Affordance first = factory.linkTo(AffordanceBuilder.methodOn(EventControllerSample.class)
+                .getEvent("1"))
+                .rel("foo")
+                .build();
+        Affordance second = factory.linkTo(AffordanceBuilder.methodOn(EventControllerSample.class)
+                .getEvent("2"))
+                .rel("foo")
+                .build();
+        assertEquals("http://example.com/events/1", first.getHref());
+        assertEquals("http://example.com/events/2", second.getHref());
+        assertEquals("1", first.getActionDescriptors()
+                .get(0)
+                .getActionInputParameter("eventId")
+                .getValue());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(MockMvcRequestBuilders
+                .get("http://example.org/")
+                .buildRequest(new MockServletContext())));
+        Affordance third = factory.linkTo(AffordanceBuilder.methodOn(EventControllerSample.class)
+                .getEvent("3"))
+                .rel("foo")
+                .build();
+        assertEquals("http://example.org/events/3", third.getHref());
+    }
+
+    @Test
+    public void testLinkToEachBindsArgumentTuplesInOrder() throws Exception {
+        List<Object[]> argumentTuples = Arrays.asList(new Object[]{"foo", 0L}, new Object[]{"bar baz", 10L});
+        List<AffordanceBuilder> builders = factory.linkToEach(AffordanceBuilder.methodOn(EventControllerSample.class)
+                .simpleQueryEvent(null, null), argumentTuples);
+
+        assertEquals(2, builders.size());
+        Affordance first = builders.get(0)
+                .rel("foo")
+                .build();
+        Affordance second = builders.get(1)
+                .rel("foo")
+                .build();
+        assertEquals("http://example.com/events/simplequery?q=foo&offset=0", first.getHref());
+        assertEquals("http://example.com/events/simplequery?q=bar+baz&offset=10", second.getHref());
+        assertEquals("bar baz", second.getActionDescriptors()
+                .get(0)
+                .getActionInputParameter("q")
+                .getValue());
+    }
+
+    @Test
+    public void testLinkToEachMethod() throws Exception {
+        final Method getEventMethod = ReflectionUtils.findMethod(EventControllerSample.class, "getEvent", String.class);
+        List<AffordanceBuilder> builders = factory.linkToEach(EventControllerSample.class, getEventMethod,
+                Arrays.asList(new Object[]{"1"}, new Object[]{"2"}));
+        assertEquals("http://example.com/events/1", builders.get(0)
+                .rel("foo")
+                .build()
+                .getHref());
+        assertEquals("http://example.com/events/2", builders.get(1)
+                .rel("foo")
+                .build()
+                .getHref());
+    }
+
+    @Test
+    public void testLinkToEachMethodBelowTemplatedClassMapping() throws Exception {
+        final Method getReviewMethod = ReflectionUtils.findMethod(ReviewControllerSample.class, "getReview",
+                String.class);
+        List<AffordanceBuilder> builders = factory.linkToEach(ReviewControllerSample.class, getReviewMethod,
+                new Object[]{"7"}, Arrays.asList(new Object[]{"1"}, new Object[]{"2"}));
+        assertEquals("http://example.com/events/7/reviews/1", builders.get(0)
+                .rel("foo")
+                .build()
+                .getHref());
+        assertEquals("http://example.com/events/7/reviews/2", builders.get(1)
+                .rel("foo")
+                .build()
+                .getHref());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLinkToEachMethodRequiresClassMappingParameters() throws Exception {
+        final Method getReviewMethod = ReflectionUtils.findMethod(ReviewControllerSample.class, "getReview",
+                String.class);
+        factory.linkToEach(ReviewControllerSample.class, getReviewMethod,
+                Collections.singletonList(new Object[]{"1"}));
+    }
+
+    @Test
+    public void testActionDescriptorsOfSameMethodHoldOwnValues() throws Exception {
+        ActionDescriptor first = factory.linkTo(AffordanceBuilder.methodOn(EventControllerSample.class)
+                .simpleQueryEvent("foo", 5L))
+                .rel("foo")
+                .build()
+                .getActionDescriptors()
+                .get(0);
+        ActionDescriptor second = factory.linkTo(AffordanceBuilder.methodOn(EventControllerSample.class)
+                .simpleQueryEvent(null, null))
+                .rel("foo")
+                .build()
+                .getActionDescriptors()
+                .get(0);
+
+        assertEquals("simpleQueryEvent", second.getActionName());
+        assertEquals("foo", first.getActionInputParameter("q")
+                .getValue());
+        assertEquals(5L, first.getActionInputParameter("offset")
+                .getValue());
+        assertFalse(second.getActionInputParameter("q")
+                .hasValue());
+        assertEquals(Collections.singleton("q"), second.getRequiredParameters()
+                .keySet());
+        assertSame(second.getRequiredParameters(), second.getRequiredParameters());
+    }
+}
@@ -242,4 +242,22 @@ public class AffordanceBuilderTest {
                 .rel(null)
                 .build();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testComputesBaseUriOncePerRequest() throws Exception {
+        AffordanceBuilder.linkTo(AffordanceBuilder.methodOn(DummyController.class)
+                .createThing(new Thing()));
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        Assert.assertEquals("http://example.com", requestAttributes.getAttribute(AffordanceBuilder
+                .BASE_URI_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+
+        // a changed base uri in the same request is not picked up
+        requestAttributes.setAttribute(AffordanceBuilder.BASE_URI_ATTRIBUTE, "http://cached.example.com",
+                RequestAttributes.SCOPE_REQUEST);
+        final Affordance affordance = AffordanceBuilder.linkTo(AffordanceBuilder.methodOn(DummyController.class)
+                .createThing(new Thing()))
+                .rel("next")
+                .build();
+        Assert.assertEquals("Link: <http://cached.example.com/things>; rel=\"next\"", affordance.toString());
+    }
+}
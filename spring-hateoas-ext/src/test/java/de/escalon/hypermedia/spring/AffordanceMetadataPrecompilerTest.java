@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.escalon.hypermedia.action.Options;
+import de.escalon.hypermedia.action.ReflectiveOptionsResolver;
+import de.escalon.hypermedia.action.Select;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class AffordanceMetadataPrecompilerTest {
+
+    public static class Address {
+
+        private final String city;
+
+        @JsonCreator
+        public Address(@JsonProperty("city") String city) {
+            this.city = city;
+        }
+
+        public String getCity() {
+            return city;
+        }
+    }
+
+    public static class Person {
+
+        private Address address;
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public void setAddress(Address address) {
+            this.address = address;
+        }
+    }
+
+    public static class Review {
+
+        @JsonCreator
+        public Review(@JsonProperty("rating") int rating, String text) {
+        }
+    }
+
+    public static class Ticket {
+
+        private UUID id;
+
+        public UUID getId() {
+            return id;
+        }
+
+        public void setId(UUID id) {
+            this.id = id;
+        }
+    }
+
+    public abstract static class AbstractOptions implements Options {
+    }
+
+    @Controller
+    @RequestMapping("/people")
+    public static class PersonController {
+
+        @RequestMapping(value = "/{id}", method = RequestMethod.PUT)
+        public ResponseEntity<Void> updatePerson(@PathVariable int id, @RequestBody Person person) {
+            return null;
+        }
+    }
+
+    @Controller
+    @RequestMapping("/tickets")
+    public static class TicketController {
+
+        @RequestMapping(method = RequestMethod.POST)
+        public ResponseEntity<Void> addTicket(@RequestBody Ticket ticket) {
+            return null;
+        }
+    }
+
+    @Controller
+    @RequestMapping("/reviews")
+    public static class ReviewController {
+
+        @RequestMapping(method = RequestMethod.POST)
+        public ResponseEntity<Void> addReview(@RequestBody Review review) {
+            return null;
+        }
+
+        @RequestMapping(method = RequestMethod.GET)
+        public ResponseEntity<Void> findReviews(@RequestParam @Select(options = AbstractOptions.class) String rating) {
+            return null;
+        }
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class ValidConfig {
+
+        @Bean
+        public PersonController personController() {
+            return new PersonController();
+        }
+
+        @Bean
+        public AffordanceMetadataPrecompiler affordanceMetadataPrecompiler() {
+            return new AffordanceMetadataPrecompiler();
+        }
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class InvalidConfig {
+
+        @Bean
+        public ReviewController reviewController() {
+            return new ReviewController();
+        }
+
+        @Bean
+        public AffordanceMetadataPrecompiler affordanceMetadataPrecompiler() {
+            return new AffordanceMetadataPrecompiler();
+        }
+    }
+
+    @Configuration
+    static class ConfigurerConfig {
+
+        @Bean
+        public SpringActionInputParameterConfigurer springActionInputParameterConfigurer() {
+            return new SpringActionInputParameterConfigurer();
+        }
+    }
+
+    @Test
+    public void testPrecompilesValidHandlerMethodsOnRefresh() throws Exception {
+        Method updatePerson = PersonController.class.getMethod("updatePerson", int.class, Person.class);
+        AffordanceBuilderFactory affordanceBuilderFactory = new AffordanceBuilderFactory();
+        assertNull(affordanceBuilderFactory.getCachedBlueprint(PersonController.class, updatePerson));
+
+        AnnotationConfigWebApplicationContext context = createContext(ValidConfig.class);
+        try {
+            context.refresh();
+        } finally {
+            context.close();
+        }
+        assertNotNull(affordanceBuilderFactory.getCachedBlueprint(PersonController.class, updatePerson));
+    }
+
+    @Test
+    public void testFailsRefreshOnMisconfiguration() {
+        AnnotationConfigWebApplicationContext context = createContext(InvalidConfig.class);
+        try {
+            context.refresh();
+            fail("misconfiguration not detected");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("not all constructor arguments of @JsonCreator"));
+            assertThat(e.getMessage(), containsString(AbstractOptions.class.getName()));
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test
+    public void testReportsMisconfigurationPerHandlerMethod() throws Exception {
+        List<String> errors = new ArrayList<String>();
+        new AffordanceMetadataPrecompiler().precompile(ReviewController.class.getMethod("findReviews", String
+                .class), errors);
+        assertEquals(1, errors.size());
+        assertThat(errors.get(0), containsString("cannot be resolved"));
+    }
+
+    @Test
+    public void testReportsOptionsWhichCachingBeanFactoryResolverCannotResolve() throws Exception {
+        SpringActionInputParameter.setOptionsResolver(new CachingOptionsResolver(new BeanFactoryOptionsResolver(
+                new DefaultListableBeanFactory()), 60000, 100));
+        try {
+            List<String> errors = new ArrayList<String>();
+            new AffordanceMetadataPrecompiler().precompile(ReviewController.class.getMethod("findReviews", String
+                    .class), errors);
+            assertEquals(1, errors.size());
+            assertThat(errors.get(0), containsString(AbstractOptions.class.getName()));
+        } finally {
+            SpringActionInputParameter.setOptionsResolver(null);
+        }
+    }
+
+    @Test
+    public void testChecksOptionsWithResolverInstalledByConfigurer() {
+        AnnotationConfigWebApplicationContext context = createContext(InvalidConfig.class);
+        context.register(ConfigurerConfig.class);
+        try {
+            context.refresh();
+            fail("misconfiguration not detected");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString(AbstractOptions.class.getName()));
+        } finally {
+            context.close();
+        }
+        assertEquals(ReflectiveOptionsResolver.class, SpringActionInputParameter.getOptionsResolver()
+                .getClass());
+    }
+
+    @Test
+    public void testAcceptsBeanTypesWithoutConstructorForBinding() throws Exception {
+        List<String> errors = new ArrayList<String>();
+        new AffordanceMetadataPrecompiler().precompile(TicketController.class.getMethod("addTicket", Ticket.class),
+                errors);
+        assertEquals(Collections.<String>emptyList(), errors);
+    }
+
+    @Test
+    public void testPrecompilesValidRequestBodies() throws Exception {
+        final List<Class<?>> requestBodyTypes = new ArrayList<Class<?>>();
+        AffordanceMetadataPrecompiler precompiler = new AffordanceMetadataPrecompiler() {
+            @Override
+            protected void precompileRequestBody(Class<?> requestBodyType) {
+                requestBodyTypes.add(requestBodyType);
+            }
+        };
+        List<String> errors = new ArrayList<String>();
+        precompiler.precompile(TicketController.class.getMethod("addTicket", Ticket.class), errors);
+        precompiler.precompile(ReviewController.class.getMethod("addReview", Review.class), errors);
+
+        assertEquals(Collections.<Class<?>>singletonList(Ticket.class), requestBodyTypes);
+        assertEquals(1, errors.size());
+    }
+
+    private static AnnotationConfigWebApplicationContext createContext(Class<?> config) {
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(config);
+        return context;
+    }
+}
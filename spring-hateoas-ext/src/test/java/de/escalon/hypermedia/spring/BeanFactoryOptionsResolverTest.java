@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.action.Options;
+import de.escalon.hypermedia.action.StringOptions;
+import org.junit.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BeanFactoryOptionsResolverTest {
+
+    public static class RepositoryOptions implements Options {
+
+        private final String[] names;
+
+        public RepositoryOptions(String... names) {
+            this.names = names;
+        }
+
+        @Override
+        public Object[] get(String[] value, Object... args) {
+            return names;
+        }
+    }
+
+    @Test
+    public void testLooksUpOptionsBean() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        RepositoryOptions repositoryOptions = new RepositoryOptions("foo", "bar");
+        beanFactory.addBean("repositoryOptions", repositoryOptions);
+
+        Options options = new BeanFactoryOptionsResolver(beanFactory).getOptions(RepositoryOptions.class);
+        assertSame(repositoryOptions, options);
+        assertArrayEquals(new Object[]{"foo", "bar"}, options.get(new String[0]));
+    }
+
+    @Test
+    public void testInstantiatesOptionsWithoutBean() {
+        Options options = new BeanFactoryOptionsResolver(new StaticListableBeanFactory())
+                .getOptions(StringOptions.class);
+        assertTrue(options instanceof StringOptions);
+    }
+}
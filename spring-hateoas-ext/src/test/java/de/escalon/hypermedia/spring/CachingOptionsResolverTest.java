@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.action.Options;
+import de.escalon.hypermedia.action.ReflectiveOptionsResolver;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class CachingOptionsResolverTest {
+
+    static final AtomicInteger optionsCalls = new AtomicInteger();
+
+    public static class CountingOptions implements Options {
+
+        @Override
+        public Object[] get(String[] value, Object... args) {
+            optionsCalls.incrementAndGet();
+            return new Object[]{value[0], args.length};
+        }
+    }
+
+    public abstract static class AbstractOptions implements Options {
+    }
+
+    @After
+    public void tearDown() {
+        optionsCalls.set(0);
+    }
+
+    @Test
+    public void testCachesPossibleValuesPerValueAndArgs() {
+        CachingOptionsResolver resolver = new CachingOptionsResolver(new ReflectiveOptionsResolver(), 60000, 10);
+        Options options = resolver.getOptions(CountingOptions.class);
+        assertSame(options, resolver.getOptions(CountingOptions.class));
+
+        Object[] possibleValues = options.get(new String[]{"a"}, 1);
+        assertArrayEquals(new Object[]{"a", 1}, possibleValues);
+        // cached values are copied, so callers cannot modify them
+        assertNotSame(possibleValues, options.get(new String[]{"a"}, 1));
+        assertArrayEquals(possibleValues, options.get(new String[]{"a"}, 1));
+        assertEquals(1, optionsCalls.get());
+
+        options.get(new String[]{"a"}, 2);
+        options.get(new String[]{"b"}, 1);
+        assertEquals(3, optionsCalls.get());
+    }
+
+    @Test
+    public void testDisablesCachingPerOptionsClass() {
+        CachingOptionsResolver resolver = new CachingOptionsResolver(new ReflectiveOptionsResolver(), 60000, 10);
+        resolver.getOptions(CountingOptions.class)
+                .get(new String[]{"a"});
+        resolver.setCacheSettings(CountingOptions.class, 0, 10);
+
+        Options options = resolver.getOptions(CountingOptions.class);
+        options.get(new String[]{"a"});
+        options.get(new String[]{"a"});
+        assertEquals(3, optionsCalls.get());
+    }
+
+    @Test
+    public void testResetsCacheWhenMaxSizeIsExceeded() {
+        CachingOptionsResolver resolver = new CachingOptionsResolver(new ReflectiveOptionsResolver(), 60000, 2);
+        Options options = resolver.getOptions(CountingOptions.class);
+        options.get(new String[]{"a"});
+        options.get(new String[]{"b"});
+        options.get(new String[]{"c"});
+        assertEquals(3, optionsCalls.get());
+        options.get(new String[]{"c"});
+        assertEquals(3, optionsCalls.get());
+        options.get(new String[]{"a"});
+        assertEquals(4, optionsCalls.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailsForOptionsWhichTheDelegateCannotResolve() {
+        new CachingOptionsResolver(new ReflectiveOptionsResolver(), 60000, 10).getOptions(AbstractOptions.class);
+    }
+}
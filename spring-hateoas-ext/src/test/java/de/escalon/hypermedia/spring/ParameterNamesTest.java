@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import org.junit.Test;
+import org.springframework.core.MethodParameter;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ParameterNamesTest {
+
+    public static class Thing {
+
+        public Thing(String name, int size) {
+        }
+
+        public void rename(String newName) {
+        }
+    }
+
+    @Test
+    public void testDiscoversMethodParameterNames() throws Exception {
+        Method rename = Thing.class.getMethod("rename", String.class);
+        assertEquals("newName", ParameterNames.getParameterName(new MethodParameter(rename, 0)));
+        // served from cache for another MethodParameter of the same method
+        assertEquals("newName", ParameterNames.getParameterName(new MethodParameter(rename, 0)));
+        assertNull(ParameterNames.getParameterName(new MethodParameter(rename, -1)));
+    }
+
+    @Test
+    public void testDiscoversConstructorParameterNames() throws Exception {
+        assertEquals("size", ParameterNames.getParameterName(new MethodParameter(Thing.class.getConstructor(String
+                .class, int.class), 1)));
+    }
+}
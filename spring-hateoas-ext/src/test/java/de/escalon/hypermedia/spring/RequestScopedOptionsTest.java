@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.action.Options;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RequestScopedOptionsTest {
+
+    static final AtomicInteger optionsCalls = new AtomicInteger();
+
+    public static class CountingOptions implements Options {
+
+        @Override
+        public Object[] get(String[] value, Object... args) {
+            optionsCalls.incrementAndGet();
+            return new Object[]{value[0], args[0]};
+        }
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        optionsCalls.set(0);
+    }
+
+    @Test
+    public void testAsksOptionsOncePerRequestForSameValueAndArgs() throws Exception {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        Object[] possibleValues = RequestScopedOptions.getPossibleValues(CountingOptions.class,
+                new String[]{"a"}, new Object[]{1});
+        assertArrayEquals(new Object[]{"a", 1}, possibleValues);
+        assertArrayEquals(possibleValues, RequestScopedOptions.getPossibleValues(CountingOptions.class,
+                new String[]{"a"}, new Object[]{1}));
+        assertEquals(1, optionsCalls.get());
+
+        RequestScopedOptions.getPossibleValues(CountingOptions.class, new String[]{"a"}, new Object[]{2});
+        assertEquals(2, optionsCalls.get());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        RequestScopedOptions.getPossibleValues(CountingOptions.class, new String[]{"a"}, new Object[]{1});
+        assertEquals(3, optionsCalls.get());
+    }
+
+    @Test
+    public void testReturnsCopiesOfMemoizedPossibleValues() throws Exception {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        RequestScopedOptions.getPossibleValues(CountingOptions.class, new String[]{"a"}, new Object[]{1})[0] = "b";
+        assertArrayEquals(new Object[]{"a", 1}, RequestScopedOptions.getPossibleValues(CountingOptions.class,
+                new String[]{"a"}, new Object[]{1}));
+        assertEquals(1, optionsCalls.get());
+    }
+
+    @Test
+    public void testAsksOptionsOnEveryCallOutsideOfRequest() throws Exception {
+        RequestScopedOptions.getPossibleValues(CountingOptions.class, new String[]{"a"}, new Object[]{1});
+        RequestScopedOptions.getPossibleValues(CountingOptions.class, new String[]{"a"}, new Object[]{1});
+        assertEquals(2, optionsCalls.get());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.action.ReflectiveOptionsResolver;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SpringActionInputParameterConfigurerTest {
+
+    @Configuration
+    static class MvcConversionServiceConfig {
+
+        @Bean
+        public ConversionService mvcConversionService() {
+            return new DefaultConversionService();
+        }
+
+        @Bean
+        public ConversionService otherConversionService() {
+            return new DefaultConversionService();
+        }
+
+        @Bean
+        public SpringActionInputParameterConfigurer springActionInputParameterConfigurer() {
+            return new SpringActionInputParameterConfigurer();
+        }
+    }
+
+    @Configuration
+    static class NoConversionServiceConfig {
+
+        @Bean
+        public SpringActionInputParameterConfigurer springActionInputParameterConfigurer() {
+            return new SpringActionInputParameterConfigurer();
+        }
+    }
+
+    @Configuration
+    static class OptionsResolverConfig {
+
+        @Bean
+        public CachingOptionsResolver cachingOptionsResolver() {
+            return new CachingOptionsResolver(new ReflectiveOptionsResolver(), 60000, 100);
+        }
+
+        @Bean
+        public SpringActionInputParameterConfigurer springActionInputParameterConfigurer() {
+            return new SpringActionInputParameterConfigurer();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        SpringActionInputParameter.setDefaultConversionService(null);
+        SpringActionInputParameter.setOptionsResolver(null);
+    }
+
+    @Test
+    public void installsMvcConversionServiceUntilContextIsClosed() {
+        ConversionService defaultConversionService = SpringActionInputParameter.getDefaultConversionService();
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                MvcConversionServiceConfig.class);
+
+        assertSame(context.getBean("mvcConversionService"), SpringActionInputParameter
+                .getDefaultConversionService());
+
+        context.close();
+        assertSame(defaultConversionService, SpringActionInputParameter.getDefaultConversionService());
+    }
+
+    @Test
+    public void keepsConversionServiceInstalledByOthersOnClose() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                MvcConversionServiceConfig.class);
+        ConversionService other = new DefaultConversionService();
+        SpringActionInputParameter.setDefaultConversionService(other);
+
+        context.close();
+        assertSame(other, SpringActionInputParameter.getDefaultConversionService());
+    }
+
+    @Test
+    public void keepsDefaultConversionServiceWithoutConversionServiceBean() {
+        ConversionService defaultConversionService = SpringActionInputParameter.getDefaultConversionService();
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                NoConversionServiceConfig.class);
+        try {
+            assertSame(defaultConversionService, SpringActionInputParameter.getDefaultConversionService());
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test
+    public void installsBeanFactoryOptionsResolverUntilContextIsClosed() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                NoConversionServiceConfig.class);
+
+        assertEquals(BeanFactoryOptionsResolver.class, SpringActionInputParameter.getOptionsResolver()
+                .getClass());
+
+        context.close();
+        assertEquals(ReflectiveOptionsResolver.class, SpringActionInputParameter.getOptionsResolver()
+                .getClass());
+    }
+
+    @Test
+    public void installsOptionsResolverBean() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                OptionsResolverConfig.class);
+        try {
+            assertSame(context.getBean(CachingOptionsResolver.class), SpringActionInputParameter
+                    .getOptionsResolver());
+        } finally {
+            context.close();
+        }
+    }
+}
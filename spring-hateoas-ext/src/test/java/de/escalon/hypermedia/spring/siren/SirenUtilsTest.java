@@ -13,10 +13,12 @@ import org.springframework.hateoas.Resources;
 import org.springframework.hateoas.core.EmbeddedWrapper;
 import org.springframework.hateoas.core.Relation;
 
+import java.io.Closeable;
 import java.util.*;
 
 import static com.jayway.jsonassert.JsonAssert.with;
 import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertTrue;
 
 public class SirenUtilsTest {
 
@@ -248,6 +250,39 @@ public class SirenUtilsTest {
         with(json).assertThat("$.links", hasSize(1));
     }
 
+    static class CloseableContent<T> extends ArrayList<T> implements Closeable {
+
+        boolean closed;
+
+        CloseableContent(Collection<T> content) {
+            super(content);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    public void testClosesCloseableResourcesContent() {
+        final CloseableContent<Address> content = new CloseableContent<Address>(
+                Arrays.asList(new Address(), new Address()));
+        Resources<Address> addressResources = new Resources<Address>(content) {
+            @Override
+            public Collection<Address> getContent() {
+                return content;
+            }
+        };
+        SirenEntity entity = new SirenEntity();
+        sirenUtils.toSirenEntity(entity, addressResources);
+
+        String json = objectMapper.valueToTree(entity)
+                .toString();
+        with(json).assertThat("$.entities", hasSize(2));
+        assertTrue(content.closed);
+    }
+
     @Test
     public void testPagedResources() {
         List<Address> addresses = new ArrayList<Address>();